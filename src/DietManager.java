@@ -1,4 +1,6 @@
+import controller.AutoSaver;
 import controller.IOHandler;
+import controller.ModelWriter;
 import model.exercise.ExerciseCollection;
 import model.food.FoodCollection;
 import model.log.LogCollection;
@@ -13,9 +15,11 @@ import javafx.geometry.Pos;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.*;
 import javafx.scene.layout.*;
 import javafx.stage.*;
+import java.util.Arrays;
 
 /**
  * Diet Manager is an application that seeks to help
@@ -30,9 +34,10 @@ import javafx.stage.*;
 public class DietManager extends Application implements EventHandler<ActionEvent> {
 	private static FoodCollection fCollection = new FoodCollection();
 	private static ExerciseCollection eCollection = new ExerciseCollection();
-	private static LogCollection lCollection = new LogCollection();
+	private static LogCollection lCollection = new LogCollection( fCollection, eCollection );
 
 	private static IOHandler ioHandler = new IOHandler(fCollection, lCollection, eCollection);
+	private static AutoSaver autoSaver; // Saves the changed models in the background
 
 	private Stage stage;
 	private Scene scene;
@@ -97,6 +102,7 @@ public class DietManager extends Application implements EventHandler<ActionEvent
 		this.stage.setOnCloseRequest(new EventHandler<WindowEvent>() { // On close event
 			@Override
 			public void handle(WindowEvent e) {
+				e.consume(); // The window stays open until the save is done
 				saveAndClose();
 			}
 		});
@@ -122,17 +128,40 @@ public class DietManager extends Application implements EventHandler<ActionEvent
 
 	/**
 	 * Save all data to CSV files and close the application
+	 *
+	 * The save runs on the autosave thread, so the GUI keeps drawing while it writes
 	 */
 	public void saveAndClose() {
 		// Saves weight and calorie for the day
 		nPanel.doSavePreferences();
+		btnSave.setDisable( true );
 
-		// Writes all data back into csv files
-		ioHandler.write();
-
-		// Success alert
-		new Alert(Alert.AlertType.INFORMATION, "Saved! Diet Manager will now close...").showAndWait();
-		System.exit(1);
+		// Writes whatever changed since the last autosave back into the csv files
+		autoSaver.saveNow(new Runnable() {
+			@Override
+			public void run() {
+				// Success alert
+				Platform.runLater(new Runnable() {
+					@Override
+					public void run() {
+						new Alert(Alert.AlertType.INFORMATION, "Saved! Diet Manager will now close...").showAndWait();
+						System.exit(1);
+					}
+				});
+			}
+		}, new Runnable() {
+			@Override
+			public void run() {
+				// The csv files were left as they were, so stay open and let the user try again
+				Platform.runLater(new Runnable() {
+					@Override
+					public void run() {
+						new Alert(Alert.AlertType.ERROR, "Could not save! Check that the disk is not full and try again.").showAndWait();
+						btnSave.setDisable( false );
+					}
+				});
+			}
+		});
 	}
 
 	/**
@@ -141,18 +170,33 @@ public class DietManager extends Application implements EventHandler<ActionEvent
 	 * 1.) Start the read of csv files
 	 * 2.) Start the CLI
 	 * 3.) Start the GUI
+	 *
+	 * Use Headless instead to run only the CLI without loading JavaFX
  	 */
 	public static void main(String[] args) {
 		System.out.println("Starting Diet Manager V2.0...");
 
-		// Read in csv files to load models
+		// Keep a binary snapshot next to the csv files when started with --snapshot
+		ioHandler.setSnapshotMode( Arrays.asList(args).contains("--snapshot") );
+
+		// With --no-journal changes are only saved by the autosave, instead of also being synced to the journals one by one
+		ioHandler.setJournalMode( !Arrays.asList(args).contains("--no-journal") );
+
+		// Read in csv files to load models, before any other thread can change them
 		ioHandler.read();
 
+		// From here on the CLI and GUI change the models through the controllers, on the writer thread
+		ModelWriter.getInstance().own( fCollection, eCollection, lCollection );
+
+		// Save changes every AutoSaver.INTERVAL_SECONDS at most, or sooner once the user pauses
+		autoSaver = new AutoSaver( ioHandler, fCollection, eCollection, lCollection );
+		autoSaver.start();
+
 		// Start both CLI and JavaFX in parallel
 		Thread cli = new Thread() {
 			public void run() {
 				// Start CLI
-				new DietManagerCLI(fCollection, eCollection, lCollection).main(args);
+				new DietManagerCLI(fCollection, eCollection, lCollection, autoSaver).main(args);
 			}
 		};
 		cli.start();
@@ -1,11 +1,14 @@
 import controller.*;
 import model.exercise.ExerciseCollection;
 import model.food.FoodCollection;
+import model.log.DayLog;
 import model.log.LogCollection;
 
 import javax.xml.bind.SchemaOutputResolver;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
 
 /**
  * The CLI for DietManager, this does the same functionality as the GUI.
@@ -17,7 +20,7 @@ public class DietManagerCLI {
 	private static ExerciseCollection eCollection;
 	private static LogCollection lCollection;
 
-	private static IOHandler ioHandler;
+	private static AutoSaver autoSaver;
 	private static FoodController fController;
 	private static LogController lController;
 	private static ExerciseController eController;
@@ -25,12 +28,18 @@ public class DietManagerCLI {
 
 	private static Scanner scn;
 
-	public DietManagerCLI(FoodCollection f, ExerciseCollection e, LogCollection l) {
+	/**
+	 * @param f
+	 * @param e
+	 * @param l
+	 * @param autoSaver saves on Exit, the same way as the GUI's Save & Quit
+	 */
+	public DietManagerCLI(FoodCollection f, ExerciseCollection e, LogCollection l, AutoSaver autoSaver) {
 		this.fCollection = f;
 		this.eCollection = e;
 		this.lCollection = l;
 
-		this.ioHandler = new IOHandler(fCollection, lCollection, eCollection);
+		this.autoSaver = autoSaver;
 		this.fController = new FoodController(fCollection);
 		this.lController = new LogController(fCollection, lCollection, eCollection);
 		this.eController = new ExerciseController(eCollection);
@@ -58,7 +67,8 @@ public class DietManagerCLI {
 			System.out.println("13) View all logged exercises");
 			System.out.println("14) View Calorie Information");
 			System.out.println("15) View Nutrition Information");
-			System.out.println("16) Exit Application");
+			System.out.println("16) View Summary for a Date Range");
+			System.out.println("17) Exit Application");
 
 
 
@@ -478,8 +488,11 @@ public class DietManagerCLI {
 
 			// Log food
 			else if(command == 10) {
+				System.out.print("starts with (leave blank for all): ");
+				String prefix = scn.nextLine().trim();
+
 				System.out.println("Foods:");
-				ArrayList<String> foodNames = (ArrayList<String>)lController.getFoodData();
+				List<String> foodNames = fController.searchFoods(prefix, Integer.MAX_VALUE);
 				for(String foodName : foodNames){
 					System.out.println("\t" + foodName);
 				}
@@ -487,8 +500,11 @@ public class DietManagerCLI {
 
 			// Log food
 			else if(command == 11) {
+				System.out.print("starts with (leave blank for all): ");
+				String prefix = scn.nextLine().trim();
+
 				System.out.println("Exercises:");
-				ArrayList<String> exerciseNames = (ArrayList<String>)lController.getExerciseData();
+				List<String> exerciseNames = eController.searchExercises(prefix, Integer.MAX_VALUE);
 				for(String exerciseName : exerciseNames){
 					System.out.println("\t" + exerciseName);
 				}
@@ -619,10 +635,75 @@ public class DietManagerCLI {
 				}
 			}
 
-			// Quit
+			// Get a summary of every logged day between two dates
 			else if(command == 16) {
-				ioHandler.write();
-				System.exit(1);
+				while (true) {
+					System.out.print("from date (yyyy-mm-dd): ");
+					String from = scn.nextLine().trim();
+					if (from.equals("q")) {
+						break;
+					}
+
+					System.out.print("to date (yyyy-mm-dd): ");
+					String to = scn.nextLine().trim();
+					if (to.equals("q")) {
+						break;
+					}
+
+					List<DayLog> days = lController.getLogsBetween(from, to);
+					if (days == null) {
+						System.out.println("Please enter dates in valid format");
+						continue;
+					}
+
+					if (days.isEmpty()) {
+						System.out.println("No logs between the entered dates");
+						break;
+					}
+
+					// One line per logged day, then the totals over the range
+					double totalConsumed = 0.0;
+					double totalBurned = 0.0;
+					double totalFat = 0.0;
+					double totalCarb = 0.0;
+					double totalProtein = 0.0;
+
+					for (DayLog day : days) {
+						ArrayList<Double> nutrientValues = nController.calculateTotalConsumedNutrients(day);
+						Double burnedCalories = nController.calculateBurnedCalories(day);
+
+						totalConsumed += nutrientValues.get(0);
+						totalFat += nutrientValues.get(1);
+						totalCarb += nutrientValues.get(2);
+						totalProtein += nutrientValues.get(3);
+						totalBurned += burnedCalories;
+
+						String weight = Double.isNaN(day.getWeight()) ? "-" : String.format("%.1f", day.getWeight());
+						System.out.println("\t" + day.getDate() + ": Consumed " + String.format("%.2f", nutrientValues.get(0))
+								+ ", Burned " + String.format("%.2f", burnedCalories) + ", Weight " + weight);
+					}
+
+					System.out.println("\tDays Logged: " + days.size());
+					System.out.println("\tAverage Net Calories: " + String.format("%.2f", (totalConsumed - totalBurned) / days.size()));
+					System.out.println("\tAverage Consumed Calories: " + String.format("%.2f", totalConsumed / days.size()));
+					System.out.println("\tAverage Burned Calories: " + String.format("%.2f", totalBurned / days.size()));
+					System.out.println("\tTotal Fat: " + String.format("%.2f", totalFat) + "g, Carb: " + String.format("%.2f", totalCarb)
+							+ "g, Protein: " + String.format("%.2f", totalProtein) + "g");
+					break;
+				}
+			}
+
+			// Quit
+			else if(command == 17) {
+				try {
+					// Saves whatever changed since the last autosave, on the autosave thread
+					autoSaver.saveNow(null, null).get();
+					System.exit(1);
+				}
+				catch(InterruptedException | ExecutionException e) {
+					// The csv files were left as they were
+					System.out.println("Could not save, check that the disk is not full and try again");
+				}
 			}
 		}
 	}
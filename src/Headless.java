@@ -0,0 +1,60 @@
+import controller.AutoSaver;
+import controller.IOHandler;
+import controller.ModelWriter;
+import model.exercise.ExerciseCollection;
+import model.food.FoodCollection;
+import model.log.LogCollection;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Runs Diet Manager with only the CLI, ie.) on a server without a display: java Headless [--snapshot] [--no-journal]
+ *
+ * This is a separate main class because DietManager extends the JavaFX Application, so loading it loads JavaFX.
+ * Nothing here touches JavaFX, so the toolkit is never loaded or started, and the CLI runs on the main thread.
+ *
+ * Exit and the end of the input both save through the same AutoSaver as the autosave, so the options apply to them.
+ *
+ * @author Team A
+ */
+public class Headless {
+	public static void main(String[] args) {
+		System.out.println("Starting Diet Manager V2.0 without a GUI...");
+
+		FoodCollection fCollection = new FoodCollection();
+		ExerciseCollection eCollection = new ExerciseCollection();
+		LogCollection lCollection = new LogCollection( fCollection, eCollection );
+		IOHandler ioHandler = new IOHandler( fCollection, lCollection, eCollection );
+
+		// Same options and startup as DietManager.main()
+		ioHandler.setSnapshotMode( Arrays.asList(args).contains("--snapshot") );
+		ioHandler.setJournalMode( !Arrays.asList(args).contains("--no-journal") );
+
+		ioHandler.read();
+
+		ModelWriter.getInstance().own( fCollection, eCollection, lCollection );
+		AutoSaver autoSaver = new AutoSaver( ioHandler, fCollection, eCollection, lCollection );
+		autoSaver.start();
+
+		System.out.println( String.format("Started in %d ms", ManagementFactory.getRuntimeMXBean().getUptime()) );
+
+		try {
+			// The constructor sets up the models and controllers that the static main() uses
+			new DietManagerCLI( fCollection, eCollection, lCollection, autoSaver );
+			DietManagerCLI.main( args );
+		}
+		catch(NoSuchElementException nsee) {
+			// The input ended without the Exit command, ie.) piped commands ran out, so save before the JVM quits
+			try {
+				autoSaver.saveNow( null, null ).get();
+			}
+			catch(InterruptedException | ExecutionException e) {
+				System.out.println( "Could not save, the csv files were left as they were" );
+				System.exit( 1 );
+			}
+		}
+	}
+}
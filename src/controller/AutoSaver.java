@@ -0,0 +1,182 @@
+package controller;
+
+import model.exercise.ExerciseCollection;
+import model.food.FoodCollection;
+import model.log.LogCollection;
+
+import java.io.IOException;
+import java.util.concurrent.*;
+
+/**
+ * Saves the models in the background, so the data does not wait for Save & Quit and the GUI never waits for a save.
+ *
+ * A collection is dirty when its version changed since the last save, see FoodCollection.getVersion() and
+ * LogSnapshot.getVersion(), and only dirty collections are written. Every IDLE_SECONDS the versions are checked: a
+ * save runs once they stopped changing, ie.) the user paused, or at the latest INTERVAL_SECONDS after the last save,
+ * so a crash loses at most one interval of changes. With the journals on, see IOHandler.setJournalMode(), the csv
+ * files are already up to date and only the snapshot is written.
+ *
+ * @author Team A
+ */
+public class AutoSaver {
+	public static final long IDLE_SECONDS = 2; // How often the versions are checked
+	public static final long INTERVAL_SECONDS = 30; // Longest time changes stay unsaved while the user keeps typing
+
+	private IOHandler ioHandler;
+	private FoodCollection fCollection;
+	private ExerciseCollection eCollection;
+	private LogCollection lCollection;
+
+	private ScheduledExecutorService scheduler;
+
+	// Versions written by the last save
+	private int savedFood;
+	private int savedExercise;
+	private long savedLog;
+	private long lastSave; // System.nanoTime() of the last save
+
+	// Versions seen by the last check, a dirty collection whose version did not move since is idle
+	private int seenFood;
+	private int seenExercise;
+	private long seenLog;
+
+	private volatile long saves;
+
+	public AutoSaver(IOHandler io, FoodCollection f, ExerciseCollection e, LogCollection l) {
+		this.ioHandler = io;
+		this.fCollection = f;
+		this.eCollection = e;
+		this.lCollection = l;
+
+		// Everything read at startup is on disk already
+		this.savedFood = seenFood = f.getVersion();
+		this.savedExercise = seenExercise = e.getVersion();
+		this.savedLog = seenLog = l.getSnapshot().getVersion();
+		this.lastSave = System.nanoTime();
+	}
+
+	/**
+	 * Starts checking for changes on a background thread
+	 */
+	public void start() {
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread( r, "autosave" );
+				t.setDaemon( true ); // Save & Quit and the CLI's Exit save through saveNow() before exiting
+				return t;
+			}
+		});
+
+		this.scheduler.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				// An exception would cancel every later check
+				try {
+					check();
+				}
+				catch(RuntimeException re) {
+					re.printStackTrace();
+				}
+			}
+		}, IDLE_SECONDS, IDLE_SECONDS, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Saves whatever is dirty on the background thread and then runs a task there, ie.) closing the application
+	 *
+	 * @param then runs after the save, may be null
+	 * @param failed runs instead of then when the save failed, may be null
+	 * @return Future that completes after both, or fails with the IOException of the save
+	 */
+	public Future<?> saveNow(final Runnable then, final Runnable failed) {
+		return scheduler.submit(new Callable<Void>() {
+			@Override
+			public Void call() throws IOException {
+				try {
+					save();
+				}
+				catch(IOException ioe) {
+					ioe.printStackTrace();
+
+					if(failed != null) {
+						failed.run();
+					}
+					throw ioe;
+				}
+
+				if(then != null) {
+					then.run();
+				}
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Returns how many saves wrote something
+	 *
+	 * @return long
+	 */
+	public long getSaves() {
+		return saves;
+	}
+
+	@Override
+	public String toString() {
+		return String.format( "%d autosaves", saves );
+	}
+
+	/**
+	 * Saves the dirty collections once they are idle or the interval is up
+	 */
+	private synchronized void check() {
+		int food = fCollection.getVersion();
+		int exercise = eCollection.getVersion();
+		long log = lCollection.getSnapshot().getVersion();
+
+		boolean dirty = food != savedFood || exercise != savedExercise || log != savedLog;
+		boolean idle = food == seenFood && exercise == seenExercise && log == seenLog;
+		boolean due = System.nanoTime() - lastSave >= TimeUnit.SECONDS.toNanos( INTERVAL_SECONDS );
+
+		seenFood = food;
+		seenExercise = exercise;
+		seenLog = log;
+
+		if(dirty && (idle || due)) {
+			try {
+				save();
+			}
+			catch(IOException ioe) {
+				// Nothing was replaced and the collections are still dirty, so the next check tries again
+				ioe.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Writes the collections that changed since the last save, they stay dirty when the save fails
+	 *
+	 * @throws IOException
+	 */
+	private synchronized void save() throws IOException {
+		// Read before writing, so a change made during the save is still dirty afterwards
+		int food = fCollection.getVersion();
+		int exercise = eCollection.getVersion();
+		long log = lCollection.getSnapshot().getVersion();
+
+		boolean foodDirty = food != savedFood;
+		boolean exerciseDirty = exercise != savedExercise;
+		boolean logDirty = log != savedLog;
+
+		if(foodDirty || exerciseDirty || logDirty) {
+			ioHandler.write( foodDirty, exerciseDirty, logDirty );
+			saves++;
+		}
+
+		savedFood = food;
+		savedExercise = exercise;
+		savedLog = log;
+		lastSave = System.nanoTime();
+	}
+}
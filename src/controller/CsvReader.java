@@ -0,0 +1,494 @@
+package controller;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streams rows out of a csv file in a single pass. Each row is kept as byte offsets into a reused buffer,
+ * so no line String or String[] is created per row; fields are only turned into Strings or doubles when asked for.
+ * Asking for a field the current row does not have throws an IndexOutOfBoundsException, callers check fieldCount().
+ *
+ * @author Team A
+ */
+public class CsvReader implements Closeable {
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+	};
+
+	private FileChannel channel;
+	private ByteBuffer buffer;
+	private boolean eof;
+	private long filePos; // Next byte of the file to read into the buffer
+	private long fileEnd; // Reading stops at this byte of the file
+
+	private int pos; // Start of the next unread row in the buffer
+	private int[] fieldStarts = new int[16];
+	private int[] fieldEnds = new int[16];
+	private int fieldCount;
+
+	private byte[] scratch = new byte[256]; // Reused when copying a field out of the buffer
+
+	// Repeated values such as dates and food names are only turned into a String the first time they are seen
+	private StringCache lowerCaseCache = new StringCache();
+
+	public CsvReader(String fileName) throws IOException {
+		this( fileName, false );
+	}
+
+	/**
+	 * Opens a csv file for reading
+	 *
+	 * @param fileName
+	 * @param memoryMapped map the whole file into memory and scan it in place instead of copying it through a buffer
+	 * @throws IOException
+	 */
+	public CsvReader(String fileName, boolean memoryMapped) throws IOException {
+		this( fileName, 0, Long.MAX_VALUE, memoryMapped );
+	}
+
+	/**
+	 * Opens part of a csv file for reading, start and end should be row boundaries (see findRowBoundaries)
+	 *
+	 * @param fileName
+	 * @param start first byte to read
+	 * @param end reading stops before this byte
+	 * @param memoryMapped map the part into memory and scan it in place instead of copying it through a buffer
+	 * @throws IOException
+	 */
+	public CsvReader(String fileName, long start, long end, boolean memoryMapped) throws IOException {
+		this.channel = FileChannel.open( Paths.get(fileName), StandardOpenOption.READ );
+		this.filePos = start;
+		this.fileEnd = Math.min( end, channel.size() );
+
+		// A single mapping can only address 2GB, larger files are streamed
+		if(memoryMapped && fileEnd - filePos <= Integer.MAX_VALUE) {
+			this.buffer = channel.map( FileChannel.MapMode.READ_ONLY, filePos, Math.max( 0, fileEnd - filePos ) );
+			this.eof = true;
+		}
+		else {
+			this.buffer = ByteBuffer.allocate( BUFFER_SIZE );
+			this.buffer.limit(0);
+		}
+	}
+
+	/**
+	 * Splits a file into roughly equal parts that each start at the beginning of a row, so that the
+	 * parts can be read by separate CsvReaders at the same time
+	 *
+	 * @param fileName
+	 * @param parts
+	 * @return the byte offsets where each part starts, followed by the size of the file
+	 * @throws IOException
+	 */
+	public static long[] findRowBoundaries(String fileName, int parts) throws IOException {
+		try(FileChannel fc = FileChannel.open( Paths.get(fileName), StandardOpenOption.READ )) {
+			long size = fc.size();
+			long[] boundaries = new long[parts + 1];
+			int count = 1; // boundaries[0] is always the start of the file
+			ByteBuffer bb = ByteBuffer.allocate( 4096 );
+
+			for(int k=1; k<parts; k++) {
+				long pos = Math.max( size * k / parts, boundaries[count-1] );
+				long boundary = size;
+
+				// Move forward to just after the next line break
+				search:
+				while(pos < size) {
+					bb.clear();
+					int read = fc.read( bb, pos );
+					if(read <= 0) {
+						break;
+					}
+
+					for(int i=0; i<read; i++) {
+						if(bb.get(i) == '\n') {
+							boundary = pos + i + 1;
+							break search;
+						}
+					}
+					pos += read;
+				}
+
+				if(boundary > boundaries[count-1] && boundary < size) {
+					boundaries[count++] = boundary;
+				}
+			}
+
+			boundaries[count++] = size;
+			return Arrays.copyOf( boundaries, count );
+		}
+	}
+
+	/**
+	 * Moves to the next row of the file
+	 *
+	 * @return false once there are no rows left
+	 * @throws IOException
+	 */
+	public boolean nextRow() throws IOException {
+		int scan = pos;
+
+		while(true) {
+			int limit = buffer.limit();
+
+			// Look for the end of the current row
+			for(int i=scan; i<limit; i++) {
+				if(buffer.get(i) == '\n') {
+					splitRow(pos, i);
+					pos = i + 1;
+					return true;
+				}
+			}
+
+			if(eof) {
+				// Last row of the file without a trailing line break
+				if(pos < limit) {
+					splitRow(pos, limit);
+					pos = limit;
+					return true;
+				}
+				return false;
+			}
+
+			scan = fill();
+		}
+	}
+
+	/**
+	 * Moves the unread part of the buffer to the front and reads more of the file behind it
+	 *
+	 * @return index where scanning for a line break should resume
+	 * @throws IOException
+	 */
+	private int fill() throws IOException {
+		int remaining = buffer.limit() - pos;
+
+		// A single row does not fit, grow the buffer
+		if(remaining == buffer.capacity()) {
+			ByteBuffer bigger = ByteBuffer.allocate( buffer.capacity() * 2 );
+			buffer.position(pos);
+			bigger.put(buffer);
+			buffer = bigger;
+		}
+		else {
+			buffer.position(pos);
+			buffer.compact();
+		}
+
+		// Never read past the end of the requested part of the file
+		int max = (int) Math.min( buffer.remaining(), fileEnd - filePos );
+		int read = -1;
+
+		if(max > 0) {
+			int limit = buffer.limit();
+			buffer.limit( buffer.position() + max );
+			read = channel.read( buffer, filePos );
+			buffer.limit( limit );
+		}
+
+		if(read < 0) {
+			eof = true;
+		}
+		else {
+			filePos += read;
+		}
+
+		buffer.flip();
+		pos = 0;
+
+		return remaining;
+	}
+
+	/**
+	 * Records the offsets of the comma separated fields in [start, end)
+	 *
+	 * @param start
+	 * @param end
+	 */
+	private void splitRow(int start, int end) {
+		// Ignore Windows line endings
+		if(end > start && buffer.get(end-1) == '\r') {
+			end--;
+		}
+
+		fieldCount = 0;
+		int fieldStart = start;
+
+		for(int i=start; i<end; i++) {
+			if(buffer.get(i) == ',') {
+				addField(fieldStart, i);
+				fieldStart = i + 1;
+			}
+		}
+		addField(fieldStart, end);
+
+		// Mirror String.split(","), which drops trailing empty fields
+		while(fieldCount > 0 && fieldStarts[fieldCount-1] == fieldEnds[fieldCount-1]) {
+			fieldCount--;
+		}
+	}
+
+	private void addField(int start, int end) {
+		if(fieldCount == fieldStarts.length) {
+			int[] starts = new int[fieldCount * 2];
+			int[] ends = new int[fieldCount * 2];
+			System.arraycopy(fieldStarts, 0, starts, 0, fieldCount);
+			System.arraycopy(fieldEnds, 0, ends, 0, fieldCount);
+			fieldStarts = starts;
+			fieldEnds = ends;
+		}
+
+		fieldStarts[fieldCount] = start;
+		fieldEnds[fieldCount] = end;
+		fieldCount++;
+	}
+
+	/**
+	 * Returns the number of fields in the current row
+	 *
+	 * @return int
+	 */
+	public int fieldCount() {
+		return fieldCount;
+	}
+
+	/**
+	 * Checks if a field consists of exactly the given character, ie.) the "b", "r", "f" type markers
+	 *
+	 * @param index
+	 * @param c
+	 * @return boolean
+	 */
+	public boolean fieldEquals(int index, char c) {
+		checkIndex( index );
+		return fieldEnds[index] - fieldStarts[index] == 1 && buffer.get(fieldStarts[index]) == c;
+	}
+
+	/**
+	 * Returns a field as a String
+	 *
+	 * @param index
+	 * @return String
+	 */
+	public String getString(int index) {
+		return getJoined(index, index, ',');
+	}
+
+	/**
+	 * Returns the fields first through last as one String, joined by the given separator instead of commas.
+	 * ie.) getJoined(0, 2, '-') on "2018,10,15,f,..." returns "2018-10-15"
+	 *
+	 * @param first
+	 * @param last
+	 * @param separator
+	 * @return String
+	 */
+	public String getJoined(int first, int last, char separator) {
+		checkIndex( first );
+		checkIndex( last );
+
+		int start = fieldStarts[first];
+		int length = fieldEnds[last] - start;
+
+		if(scratch.length < length) {
+			scratch = new byte[length * 2];
+		}
+
+		for(int i=0; i<length; i++) {
+			byte b = buffer.get(start + i);
+			scratch[i] = b == ',' ? (byte) separator : b;
+		}
+
+		return new String(scratch, 0, length, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns a field in lower case, reusing the same String instance for repeated values
+	 *
+	 * @param index
+	 * @return String
+	 */
+	public String getCachedLowerCase(int index) {
+		checkIndex( index );
+		String value = lowerCaseCache.get( buffer, fieldStarts[index], fieldEnds[index] );
+
+		if(value == null) {
+			value = getString( index ).toLowerCase();
+			lowerCaseCache.put( buffer, fieldStarts[index], fieldEnds[index], value );
+		}
+
+		return value;
+	}
+
+	/**
+	 * Parses a field as an int without creating a String, ie.) the "05" of a date
+	 *
+	 * @param index
+	 * @return int
+	 * @throws NumberFormatException
+	 */
+	public int getInt(int index) {
+		checkIndex( index );
+		int start = fieldStarts[index];
+		int end = fieldEnds[index];
+		int value = 0;
+
+		// Anything but up to nine plain digits is left to the JDK
+		if(end - start < 1 || end - start > 9) {
+			return Integer.parseInt( getString(index).trim() );
+		}
+
+		for(int i=start; i<end; i++) {
+			byte b = buffer.get(i);
+
+			if(b < '0' || b > '9') {
+				return Integer.parseInt( getString(index).trim() );
+			}
+
+			value = value * 10 + (b - '0');
+		}
+
+		return value;
+	}
+
+	/**
+	 * Parses a field as a double without creating a String for plain decimals such as "12.5"
+	 *
+	 * @param index
+	 * @return double
+	 * @throws NumberFormatException
+	 */
+	public double getDouble(int index) {
+		checkIndex( index );
+		int start = fieldStarts[index];
+		int end = fieldEnds[index];
+
+		// Trim whitespace the same way Double.parseDouble does
+		while(start < end && buffer.get(start) <= ' ') {
+			start++;
+		}
+		while(end > start && buffer.get(end-1) <= ' ') {
+			end--;
+		}
+
+		boolean negative = false;
+		int i = start;
+		if(i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+			negative = buffer.get(i) == '-';
+			i++;
+		}
+
+		long mantissa = 0;
+		int digits = 0;
+		int decimals = 0;
+		boolean point = false;
+
+		for(; i<end; i++) {
+			byte b = buffer.get(i);
+
+			if(b >= '0' && b <= '9') {
+				mantissa = mantissa * 10 + (b - '0');
+				digits++;
+				if(point) {
+					decimals++;
+				}
+			}
+			else if(b == '.' && !point) {
+				point = true;
+			}
+			else {
+				break;
+			}
+		}
+
+		// Exponents, very long numbers and malformed values are left to the JDK
+		if(i != end || digits == 0 || digits > 15 || decimals >= POWERS_OF_TEN.length) {
+			return Double.parseDouble( getString(index) );
+		}
+
+		// Both operands are exact, so the division is correctly rounded like Double.parseDouble
+		double value = mantissa / POWERS_OF_TEN[decimals];
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Checks that the current row has a field, the offsets past fieldCount() are left over from longer rows
+	 *
+	 * @param index
+	 * @throws IndexOutOfBoundsException
+	 */
+	private void checkIndex(int index) {
+		if(index < 0 || index >= fieldCount) {
+			throw new IndexOutOfBoundsException( "Field " + index + " of a row with " + fieldCount + " fields" );
+		}
+	}
+
+	/**
+	 * A small direct-mapped cache from the raw bytes of a field to the String made from them
+	 */
+	private static class StringCache {
+		private static final int SIZE = 4096; // Must be a power of two
+
+		private byte[][] keys = new byte[SIZE][];
+		private String[] values = new String[SIZE];
+
+		private static int hash(ByteBuffer buffer, int start, int end) {
+			int h = 1;
+			for(int i=start; i<end; i++) {
+				h = 31 * h + buffer.get(i);
+			}
+			return (h ^ (h >>> 16)) & (SIZE - 1);
+		}
+
+		String get(ByteBuffer buffer, int start, int end) {
+			int slot = hash(buffer, start, end);
+			byte[] key = keys[slot];
+
+			if(key == null || key.length != end - start) {
+				return null;
+			}
+
+			for(int i=0; i<key.length; i++) {
+				if(key[i] != buffer.get(start + i)) {
+					return null;
+				}
+			}
+
+			return values[slot];
+		}
+
+		void put(ByteBuffer buffer, int start, int end, String value) {
+			int slot = hash(buffer, start, end);
+			byte[] key = new byte[end - start];
+
+			for(int i=0; i<key.length; i++) {
+				key[i] = buffer.get(start + i);
+			}
+
+			keys[slot] = key;
+			values[slot] = value;
+		}
+	}
+
+	/**
+	 * Closes the underlying file.
+	 *
+	 * A memory mapping has no way to be unmapped and stays until it is garbage collected, even after the file is
+	 * closed. Dropping the buffer here lets that happen as soon as the reader is done, but a file that is replaced
+	 * afterwards on Windows should not be mapped at all, see IOHandler.
+	 *
+	 * @throws IOException
+	 */
+	@Override
+	public void close() throws IOException {
+		buffer = null;
+		channel.close();
+	}
+}
@@ -3,18 +3,25 @@ package controller;
 import model.exercise.Exercise;
 import model.exercise.ExerciseCollection;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * All actions from the Exercise related panels will pass through here
  *
+ * Exercises are added on the ModelWriter thread, see ModelWriter
+ *
  * @author Team A
  */
 public class ExerciseController {
+    private static final String NOT_SAVED = "Could not save the exercise, please check that the disk is not full and try again!";
+
     private ExerciseCollection exerciseCollection;
+    private ModelWriter writer; // Runs every change to the collections
 
     public ExerciseController(ExerciseCollection e){
         this.exerciseCollection = e;
+        this.writer = ModelWriter.getInstance();
     }
 
     /**
@@ -26,6 +33,40 @@ public class ExerciseController {
         return this.exerciseCollection.getAllExercises();
     }
 
+    /**
+     * Finds the exercises whose names start with what was typed, ie.) for type-ahead
+     *
+     * @param prefix
+     * @param limit the most names to return
+     * @return List of exercise names in alphabetical order
+     */
+    public List<String> searchExercises(String prefix, int limit) {
+        List<String> names = new ArrayList<>();
+
+        for(String key : this.exerciseCollection.searchExercises(prefix, limit)) {
+            names.add(this.exerciseCollection.getExercise(key).getName());
+        }
+
+        return names;
+    }
+
+    /**
+     * Finds the exercises whose names are spelled most like what was typed, ie.) "Did you mean ...?"
+     *
+     * @param name
+     * @param limit the most names to return
+     * @return List of exercise names, most similar first
+     */
+    public List<String> suggestExercises(String name, int limit) {
+        List<String> names = new ArrayList<>();
+
+        for(String key : this.exerciseCollection.searchSimilarExercises(name, limit)) {
+            names.add(this.exerciseCollection.getExercise(key).getName());
+        }
+
+        return names;
+    }
+
     /**
      * Gets a specific exercise by name
      *
@@ -45,6 +86,18 @@ public class ExerciseController {
      * @return String
      */
     public String addExercise(String name, String caloriesPerHour, boolean overwrite) {
+        return writer.execute(new ModelWriter.Command() {
+            @Override
+            public String execute() {
+                return doAddExercise( name, caloriesPerHour, overwrite );
+            }
+        });
+    }
+
+    /**
+     * Runs addExercise() on the ModelWriter thread
+     */
+    private String doAddExercise(String name, String caloriesPerHour, boolean overwrite) {
         try {
             // Check that a valid name was entered
             if (name.equals("")) {
@@ -68,6 +121,12 @@ public class ExerciseController {
 
             // Create exercise
             Exercise exercise = new Exercise(name, Double.parseDouble(caloriesPerHour));
+
+            // Journal first, so an exercise that could not be saved is not added either
+            if(!Journal.getExerciseJournal().append( IOHandler.formatExercise(exercise) )) {
+                return NOT_SAVED;
+            }
+
             exerciseCollection.addExercise(name, exercise);
             return "";
         }
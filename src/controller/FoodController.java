@@ -10,15 +10,21 @@ import java.util.Map;
 /**
  * Handles actions from the food related panels
  *
+ * Foods and recipes are added on the ModelWriter thread, so the "already exists" checks cannot race another add.
+ *
  * @author Team A
  */
 public class FoodController {
+	private static final String NOT_SAVED = "Could not save the food, please check that the disk is not full and try again!";
+
 	private FoodFactory fFactory;
 	private FoodCollection fCollection;
+	private ModelWriter writer; // Runs every change to the collections
 
 	public FoodController(FoodCollection f) {
 		this.fCollection = f; // Get model
 		this.fFactory = new FoodFactory();
+		this.writer = ModelWriter.getInstance();
 	}
 
 	/**
@@ -36,6 +42,40 @@ public class FoodController {
 		return foods;
 	}
 
+	/**
+	 * Finds the foods whose names start with what was typed, ie.) for type-ahead
+	 *
+	 * @param prefix
+	 * @param limit the most names to return
+	 * @return List of food names in alphabetical order
+	 */
+	public List<String> searchFoods(String prefix, int limit) {
+		List<String> names = new ArrayList<>();
+
+		for(String key : fCollection.searchFoods( prefix, limit )) {
+			names.add( fCollection.getFood(key).getName() );
+		}
+
+		return names;
+	}
+
+	/**
+	 * Finds the foods whose names are spelled most like what was typed, ie.) "Did you mean ...?"
+	 *
+	 * @param name
+	 * @param limit the most names to return
+	 * @return List of food names, most similar first
+	 */
+	public List<String> suggestFoods(String name, int limit) {
+		List<String> names = new ArrayList<>();
+
+		for(String key : fCollection.searchSimilarFoods( name, limit )) {
+			names.add( fCollection.getFood(key).getName() );
+		}
+
+		return names;
+	}
+
 	/**
 	 * Gets an IFood object from the collection by name
 	 *
@@ -60,6 +100,18 @@ public class FoodController {
 	 * @return failure message; empty if valid execution
 	 */
 	public String addBasicFood(String name, String calories, String fat, String carb, String protein, boolean overwrite) {
+		return writer.execute(new ModelWriter.Command() {
+			@Override
+			public String execute() {
+				return doAddBasicFood( name, calories, fat, carb, protein, overwrite );
+			}
+		});
+	}
+
+	/**
+	 * Runs addBasicFood() on the ModelWriter thread
+	 */
+	private String doAddBasicFood(String name, String calories, String fat, String carb, String protein, boolean overwrite) {
 		try {
 			// Check that a valid name was entered
 			if (name.equals("")) {
@@ -101,6 +153,12 @@ public class FoodController {
 
             // Create basic food
             IFood newFood = fFactory.createBasicFood(name, calories, fat, carb, protein);
+
+            // Journal first, so a food that could not be saved is not added either
+            if(!Journal.getFoodJournal().append( IOHandler.formatFood(newFood) )) {
+                return NOT_SAVED;
+            }
+
             fCollection.addFood(name, newFood);
             return "";
 		}
@@ -118,6 +176,18 @@ public class FoodController {
      * @return errorString; empty if valid execution
      */
 	public String addRecipe(String name, String ingredients, boolean overwrite) {
+		return writer.execute(new ModelWriter.Command() {
+			@Override
+			public String execute() {
+				return doAddRecipe( name, ingredients, overwrite );
+			}
+		});
+	}
+
+	/**
+	 * Runs addRecipe() on the ModelWriter thread
+	 */
+	private String doAddRecipe(String name, String ingredients, boolean overwrite) {
         // Check that a name was entered
         if(name.equals("")){
             return "Please enter a name for the recipe.";
@@ -168,6 +238,10 @@ public class FoodController {
 
         // Create recipe
         IFood newFood = this.fFactory.createRecipe( name, ingredientsByServing ) ;
+        if(!Journal.getFoodJournal().append( IOHandler.formatFood(newFood) )) {
+            return NOT_SAVED;
+        }
+
         fCollection.addFood(name, newFood);
         return "" ;
 	}
@@ -3,10 +3,13 @@ package controller;
 import model.exercise.Exercise;
 import model.exercise.ExerciseCollection;
 import model.food.*;
+import model.log.DayLog;
 import model.log.LogCollection;
+import model.log.LogSnapshot;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Handles the read/write of data to/from food.csv and log.csv
@@ -18,16 +21,33 @@ public class IOHandler {
 	public static final String FOOD_CSV = "food.csv";
 	public static final String EXERCISE_CSV = "exercise.csv";
 	public static final String LOG_CSV = "log.csv";
+	public static final String FOOD_JOURNAL = "food.journal";
+	public static final String EXERCISE_JOURNAL = "exercise.journal";
+	public static final String LOG_JOURNAL = "log.journal";
+	public static final String SNAPSHOT = "diet.snapshot";
 
-	// I/O
-	private Scanner scn;
-	private PrintWriter pw;
+	// log.csv files larger than this are always read through a memory mapping
+	public static final long MAPPED_READ_THRESHOLD = 64L * 1024 * 1024;
+
+	// A mapping is only released when the garbage collector gets to it, and on Windows a mapped file cannot be
+	// replaced until then, which log.csv is on every save and compaction. There it is always read through a buffer.
+	private static final boolean CAN_REPLACE_MAPPED_FILES = !System.getProperty( "os.name" ).startsWith( "Windows" );
+
+	// log.csv is only split for parallel parsing into chunks of at least this size
+	private static final long MIN_CHUNK_SIZE = 1024 * 1024;
+
+	// Saves and compactions replace files one at a time
+	private static final Object WRITE_LOCK = new Object();
 
 	private FoodFactory fFactory;
 	private FoodCollection fCollection;
 	private ExerciseCollection eCollection;
 	private LogCollection lCollection;
 
+	private boolean memoryMapped; // Read log.csv through a memory mapping regardless of its size
+	private boolean journalMode = true; // Record changes in the journals as they happen instead of rewriting the csv files on save
+	private boolean snapshotMode; // Keep a binary snapshot next to the csv files and load from it when it is current
+
 	public IOHandler(FoodCollection f, LogCollection l, ExerciseCollection e) {
 		// Get models
 		this.fCollection = f;
@@ -37,335 +57,912 @@ public class IOHandler {
 	}
 
 	/**
-	 * Reads in the data from the csv files and prepares them at program execution
+	 * Reads in the data from the csv files and prepares them at program execution.
+	 *
+	 * When snapshot mode is on and diet.snapshot was written from the current csv files, it is loaded instead and only
+	 * the journal records appended after it was written are replayed, see Snapshot.read(). A damaged snapshot is
+	 * ignored and the csv files are read.
 	 */
 	public void read() {
-		readFood();
-		readExercise();
-		readLog();
+		try {
+			// Finish or roll back any save that was interrupted
+			Journal.recover( FOOD_CSV, FOOD_JOURNAL );
+			Journal.recover( EXERCISE_CSV, EXERCISE_JOURNAL );
+			Journal.recover( LOG_CSV, LOG_JOURNAL );
+
+			// Observers get one event per collection once everything is loaded, instead of one per row
+			fCollection.beginBulk();
+			eCollection.beginBulk();
+			lCollection.beginBulk();
+
+			try {
+				long start = System.nanoTime();
+				Snapshot snapshot = new Snapshot( fCollection, eCollection, lCollection );
+
+				if(snapshotMode && snapshot.read( SNAPSHOT )) {
+					// Changes recorded after the snapshot was written
+					readFood( FOOD_JOURNAL, snapshot.getJournalPosition(FOOD_JOURNAL), Journal.completeLength(FOOD_JOURNAL) );
+					readExercise( EXERCISE_JOURNAL, snapshot.getJournalPosition(EXERCISE_JOURNAL), Journal.completeLength(EXERCISE_JOURNAL) );
+					replayJournal( snapshot.getJournalPosition(LOG_JOURNAL), Journal.completeLength(LOG_JOURNAL) );
+					printLoadTime( SNAPSHOT, start );
+				}
+				else {
+					readCsv();
+				}
+			}
+			finally {
+				fCollection.endBulk();
+				eCollection.endBulk();
+				lCollection.endBulk();
+			}
+
+			if(journalMode) {
+				Journal.getFoodJournal().open( FOOD_JOURNAL );
+				Journal.getExerciseJournal().open( EXERCISE_JOURNAL );
+				LogJournal.getInstance().open( LOG_JOURNAL );
+
+				startCompaction( Journal.getFoodJournal(), FOOD_CSV );
+				startCompaction( Journal.getExerciseJournal(), EXERCISE_CSV );
+				startCompaction( LogJournal.getInstance(), LOG_CSV );
+			}
+		}
+		catch(IOException ioe) {
+			ioe.printStackTrace();
+			System.exit( 1 );
+		}
 	}
 
 	/**
-	 * Writes data from models back into food.csv and log.csv
+	 * Reads the csv files and replays their journals, up to the last complete record of each, see Journal.completeLength()
+	 *
+	 * food.csv and exercise.csv are loaded at the same time, while log.csv is split into chunks that are parsed
+	 * in parallel and then added to the LogCollection in file order.
+	 *
+	 * @throws IOException
 	 */
-	public void write() {
-		writeFood();
-		writeExercise();
-		writeLog();
+	private void readCsv() throws IOException {
+		final long foodJournal = Journal.completeLength( FOOD_JOURNAL );
+		final long exerciseJournal = Journal.completeLength( EXERCISE_JOURNAL );
+		long logJournal = Journal.completeLength( LOG_JOURNAL );
+
+		int threads = Runtime.getRuntime().availableProcessors();
+		ExecutorService pool = Executors.newFixedThreadPool( Math.max(2, threads) );
+
+		try {
+			Future<?> food = pool.submit(new Runnable() {
+				@Override
+				public void run() {
+					long start = System.nanoTime();
+					readFood( FOOD_CSV, 0, Long.MAX_VALUE );
+					readFood( FOOD_JOURNAL, 0, foodJournal );
+					printLoadTime( FOOD_CSV, start );
+				}
+			});
+
+			Future<?> exercise = pool.submit(new Runnable() {
+				@Override
+				public void run() {
+					long start = System.nanoTime();
+					readExercise( EXERCISE_CSV, 0, Long.MAX_VALUE );
+					readExercise( EXERCISE_JOURNAL, 0, exerciseJournal );
+					printLoadTime( EXERCISE_CSV, start );
+				}
+			});
+
+			long start = System.nanoTime();
+			readLog( pool, threads );
+			replayJournal( 0, logJournal );
+			printLoadTime( LOG_CSV, start );
+
+			food.get();
+			exercise.get();
+		}
+		catch(InterruptedException | ExecutionException e) {
+			e.printStackTrace();
+			System.exit( 1 );
+		}
+		finally {
+			pool.shutdown();
+		}
 	}
 
 	/**
-	 * Reads from food.csv
+	 * Prints how long a file took to load
+	 *
+	 * @param file
+	 * @param start System.nanoTime() when loading started
 	 */
-	private void readFood() {
-		String line = ""; // Holds current line
+	private void printLoadTime(String file, long start) {
+		System.out.println( String.format("Loaded %s in %d ms", file, (System.nanoTime() - start) / 1000000) );
+	}
 
-		// Read food.csv
-		try {
-			scn = new Scanner( new FileInputStream( FOOD_CSV ) );
-			Map<IFood, Double> ingredientsByServing;
-
-			while(scn.hasNextLine()) {
-				line = scn.nextLine();
-
-				// Split the line into values separated by commas
-				String[] values = line.split(",");
-
-				if(values.length > 1) {
-					// Recipe needs to be processed differently from BasicFood
-					if(values[0].equals("r")) {
-						ingredientsByServing = new HashMap<>();
-
-						// Get the objects of the ingredients
-						for(int i=2; i<values.length; i+=2) {
-							String name = values[i].toLowerCase(); // Name of ingredient
-							String serving = values[i+1]; // Serving size of ingredient
-							IFood ingredient =  fCollection.getCollection().get(name); // Ingredient food object
-
-							if(ingredient != null) {
-								ingredientsByServing.put(
-										ingredient, Double.parseDouble( serving )
-								);
-							}
-						}
+	/**
+	 * Sets whether log.csv is read through a memory mapping instead of a buffered stream, ignored on Windows
+	 *
+	 * @param memoryMapped
+	 */
+	public void setMemoryMapped(boolean memoryMapped) {
+		this.memoryMapped = memoryMapped;
+	}
+
+	/**
+	 * Sets whether changes are recorded in the journals as they happen instead of rewriting the csv files on save
+	 *
+	 * @param journalMode
+	 */
+	public void setJournalMode(boolean journalMode) {
+		this.journalMode = journalMode;
+	}
+
+	/**
+	 * Sets whether a binary snapshot of all data is written on save and loaded on startup when it is current
+	 *
+	 * @param snapshotMode
+	 */
+	public void setSnapshotMode(boolean snapshotMode) {
+		this.snapshotMode = snapshotMode;
+	}
+
+	/**
+	 * Writes data from models back into food.csv, exercise.csv and log.csv, and the snapshot when snapshot mode is on.
+	 *
+	 * Files whose journal is recording changes are already up to date on disk and are left alone. The others are
+	 * written to a temp file that is then renamed over the csv file, so a crash never leaves a half written file, and
+	 * their journal, which read() replayed into the models, is emptied.
+	 *
+	 * @throws IOException when a file could not be written, the csv file and journal it would have replaced are untouched
+	 */
+	public void write() throws IOException {
+		write( true, true, true );
+	}
+
+	/**
+	 * Writes the data of some of the models, ie.) the ones AutoSaver found changed since the last save. The snapshot
+	 * holds all three, so it is written when any of them is.
+	 *
+	 * Can be called from any thread, saves run one at a time.
+	 *
+	 * @param food write food.csv
+	 * @param exercise write exercise.csv
+	 * @param log write log.csv
+	 * @throws IOException when a file could not be written, ie.) the disk is full. Its temp file is never renamed over
+	 *                     the csv file, so the csv file and its journal are left as they were.
+	 */
+	public void write(boolean food, boolean exercise, boolean log) throws IOException {
+		synchronized(WRITE_LOCK) {
+			if(food && !Journal.getFoodJournal().isOpen()) {
+				writeFood( FOOD_CSV + ".tmp" );
+				Journal.commitAll( FOOD_CSV + ".tmp", FOOD_CSV, FOOD_JOURNAL );
+			}
+
+			if(exercise && !Journal.getExerciseJournal().isOpen()) {
+				writeExercise( EXERCISE_CSV + ".tmp" );
+				Journal.commitAll( EXERCISE_CSV + ".tmp", EXERCISE_CSV, EXERCISE_JOURNAL );
+			}
+
+			if(log && !LogJournal.getInstance().isOpen()) {
+				writeLog( LOG_CSV + ".tmp" );
+				Journal.commitAll( LOG_CSV + ".tmp", LOG_CSV, LOG_JOURNAL );
+			}
+
+			if(snapshotMode && (food || exercise || log)) {
+				new Snapshot( fCollection, eCollection, lCollection ).write( SNAPSHOT );
+			}
+		}
+	}
+
+	/**
+	 * Applies the changes recorded in log.journal to the LogCollection
+	 *
+	 * @param start first byte of the journal to apply
+	 * @param end applying stops before this byte
+	 */
+	private void replayJournal(long start, long end) {
+		if(!new File( LOG_JOURNAL ).exists()) {
+			return;
+		}
+
+		int skipped = 0;
 
-						IFood food = fFactory.createFood( values, ingredientsByServing );
-						fCollection.addFood( food.getName().toLowerCase(), food );
+		try(CsvReader reader = new CsvReader( LOG_JOURNAL, start, end, false )) {
+			while(reader.nextRow()) {
+				if(reader.fieldCount() < 6) {
+					skipped++;
+					continue;
+				}
+
+				long date;
+				try {
+					date = LogCollection.toEpochDay( reader.getInt(1), reader.getInt(2), reader.getInt(3) );
+				}
+				catch(IllegalArgumentException iae) {
+					skipped++;
+					continue; // Not a valid date
+				}
+
+				boolean add = reader.fieldEquals(0, '+');
+
+				try {
+					if(reader.fieldEquals(4, 'w')) {
+						lCollection.addWeightLog( date, reader.getDouble(5) );
+					}
+					else if(reader.fieldEquals(4, 'c')) {
+						lCollection.addCalorieLimit( date, reader.getDouble(5) );
+					}
+					else if(reader.fieldEquals(4, 'f') && reader.fieldCount() > 6) {
+						if(add) {
+							lCollection.addFoodLog( date, reader.getCachedLowerCase(5), reader.getDouble(6) );
+						}
+						else {
+							lCollection.removeFoodLog( date, reader.getCachedLowerCase(5), reader.getDouble(6) );
+						}
+					}
+					else if(reader.fieldEquals(4, 'e') && reader.fieldCount() > 6) {
+						if(add) {
+							lCollection.addExerciseLog( date, reader.getCachedLowerCase(5), reader.getDouble(6) );
+						}
+						else {
+							lCollection.removeExerciseLog( date, reader.getCachedLowerCase(5), reader.getDouble(6) );
+						}
 					}
 					else {
-						ingredientsByServing = new HashMap<>();
-						IFood food = fFactory.createFood( values, ingredientsByServing );
-						fCollection.addFood( food.getName().toLowerCase(), food );
+						skipped++;
 					}
 				}
+				catch(NumberFormatException nfe) {
+					skipped++;
+				}
 			}
-			// Close scanner
-			scn.close();
 		}
-		catch(FileNotFoundException fnfe) {
-			fnfe.printStackTrace();
+		catch(IOException ioe) {
+			ioe.printStackTrace();
 			System.exit( 1 );
 		}
+
+		warnSkipped( LOG_JOURNAL, skipped );
 	}
 
 	/**
-	 * Reads from exercise.csv
+	 * Folds a journal back into its csv file on a background thread when it has any changes.
+	 *
+	 * The compaction works from the files alone, so the models can keep being used while it runs.
+	 *
+	 * @param journal
+	 * @param csv the csv file of the journal
 	 */
-	private void readExercise() {
-		String line = ""; // Holds current line
+	private void startCompaction(final Journal journal, final String csv) {
+		if(journal.length() == 0) {
+			return;
+		}
 
-		// Read exercise.csv
-		try {
-			scn = new Scanner( new FileInputStream( EXERCISE_CSV ) );
+		Thread compaction = new Thread() {
+			public void run() {
+				try {
+					long consumed = journal.length();
+
+					// Load the csv file and the journal into separate collections and write them out in full
+					IOHandler handler = new IOHandler( new FoodCollection(), new LogCollection(), new ExerciseCollection() );
+
+					if(csv.equals( FOOD_CSV )) {
+						handler.readFood( FOOD_CSV, 0, Long.MAX_VALUE );
+						handler.readFood( FOOD_JOURNAL, 0, consumed );
+						handler.writeFood( FOOD_CSV + ".tmp" );
+					}
+					else if(csv.equals( EXERCISE_CSV )) {
+						handler.readExercise( EXERCISE_CSV, 0, Long.MAX_VALUE );
+						handler.readExercise( EXERCISE_JOURNAL, 0, consumed );
+						handler.writeExercise( EXERCISE_CSV + ".tmp" );
+					}
+					else {
+						handler.readLogRows( 0, Long.MAX_VALUE, false, new LogRows( handler.lCollection ) );
+						handler.replayJournal( 0, consumed );
+						handler.writeLog( LOG_CSV + ".tmp" );
+					}
+
+					synchronized(WRITE_LOCK) {
+						journal.commit( csv + ".tmp", csv, consumed );
 
-			while(scn.hasNextLine()) {
-				line = scn.nextLine();
+						// The snapshot was written from the old csv file, so it is no longer used, see Snapshot.read()
+						if(snapshotMode) {
+							new Snapshot( fCollection, eCollection, lCollection ).write( SNAPSHOT );
+						}
+					}
+				}
+				catch(IOException ioe) {
+					ioe.printStackTrace();
+				}
+			}
+		};
+		compaction.setDaemon(true);
+		compaction.start();
+	}
 
-				// Split the line into values separated by commas
-				String[] values = line.split(",");
+	/**
+	 * Reads from food.csv or its journal.
+	 *
+	 * All rows are parsed first and the foods are only built once the whole file is in, so a recipe can come
+	 * before its ingredients, see FoodRows.
+	 *
+	 * @param file
+	 * @param start first byte of the file to read
+	 * @param end reading stops before this byte
+	 */
+	private void readFood(String file, long start, long end) {
+		if(!new File( file ).exists() && !file.equals( FOOD_CSV )) {
+			return;
+		}
+
+		FoodRows rows = new FoodRows();
+		int skipped = 0;
+
+		// Read food.csv
+		try(CsvReader reader = new CsvReader( file, start, end, false )) {
+			while(reader.nextRow()) {
+				try {
+					if(reader.fieldCount() > 1 && reader.fieldEquals(0, 'r')) {
+						// Recipe needs to be processed differently from BasicFood
+						String name = reader.getString(1);
+						int count = (reader.fieldCount() - 2) / 2;
+						String[] ingredients = new String[count];
+						double[] servings = new double[count];
+
+						for(int i=0; i<count; i++) {
+							ingredients[i] = reader.getString(2 + i*2).toLowerCase(); // Name of ingredient
+							servings[i] = reader.getDouble(3 + i*2);
+						}
+
+						rows.addRecipe( name, ingredients, servings );
+					}
+					else if(reader.fieldCount() > 5 && reader.fieldEquals(0, 'b')) {
+						rows.addBasicFood( reader.getString(1), reader.getDouble(2), reader.getDouble(3), reader.getDouble(4), reader.getDouble(5) );
+					}
+					else if(reader.fieldCount() > 0) {
+						skipped++;
+					}
+				}
+				catch(NumberFormatException nfe) {
+					skipped++;
+				}
+			}
+		}
+		catch(IOException ioe) {
+			ioe.printStackTrace();
+			System.exit( 1 );
+		}
+
+		warnSkipped( file, skipped );
+		rows.addTo( fCollection, fFactory, file );
+	}
+
+	/**
+	 * Reads from exercise.csv or its journal
+	 *
+	 * @param file
+	 * @param start first byte of the file to read
+	 * @param end reading stops before this byte
+	 */
+	private void readExercise(String file, long start, long end) {
+		if(!new File( file ).exists() && !file.equals( EXERCISE_CSV )) {
+			return;
+		}
 
-				if(values.length > 1) {
-					// Check for "e"
-					if(values[0].equals("e")) {
+		int skipped = 0;
+
+		// Read exercise.csv
+		try(CsvReader reader = new CsvReader( file, start, end, false )) {
+			while(reader.nextRow()) {
+				// Check for "e" with a name and calories per hour
+				if(reader.fieldCount() > 2 && reader.fieldEquals(0, 'e')) {
+					try {
 						// Build new exercise Object
-						String name = values[1];
-						Double caloriesPerHour = Double.parseDouble(values[2]);
-						Exercise exercise = new Exercise(name, caloriesPerHour);
+						Exercise exercise = new Exercise( reader.getString(1), reader.getDouble(2) );
 
 						// Add exercise to hashmap
 						eCollection.addExercise( exercise.getName().toLowerCase(), exercise );
 					}
+					catch(NumberFormatException nfe) {
+						skipped++;
+					}
+				}
+				else if(reader.fieldCount() > 0) {
+					skipped++;
 				}
 			}
-
-			// Close scanner
-			scn.close();
 		}
-		catch(FileNotFoundException fnfe) {
-			fnfe.printStackTrace();
+		catch(IOException ioe) {
+			ioe.printStackTrace();
 			System.exit( 1 );
 		}
+
+		warnSkipped( file, skipped );
 	}
 
 	/**
 	 * Reads from log.csv
+	 *
+	 * @param pool threads that parse the chunks of the file
+	 * @param chunks number of chunks to split the file into
 	 */
-	private void readLog() {
-		String line = "";
+	private void readLog(ExecutorService pool, int chunks) {
+		final boolean mapped = CAN_REPLACE_MAPPED_FILES && (memoryMapped || new File( LOG_CSV ).length() > MAPPED_READ_THRESHOLD);
+
+		// Small files are not worth splitting
+		if(new File( LOG_CSV ).length() < MIN_CHUNK_SIZE * 2) {
+			chunks = 1;
+		}
 
-		// Read log.csv
 		try {
-			scn = new Scanner( new FileInputStream( LOG_CSV ) );
+			final long[] boundaries = CsvReader.findRowBoundaries( LOG_CSV, chunks );
 
-			while(scn.hasNextLine()) {
-				line = scn.nextLine();
+			// A single chunk is parsed straight into the LogCollection
+			if(boundaries.length <= 2) {
+				warnSkipped( LOG_CSV, readLogRows( 0, Long.MAX_VALUE, mapped, new LogRows( lCollection ) ).invalid );
+				return;
+			}
 
-				String[] values = line.split(",");
+			// Parse each chunk of log.csv on its own thread
+			List<Future<LogRows>> parsed = new ArrayList<>();
 
-				if(values.length > 1) {
-					// Get the date as a String
-					String date = values[0] + "-" + values[1] + "-" + values[2]; // yyyy-mm-dd
+			for(int i=0; i<boundaries.length-1; i++) {
+				final long start = boundaries[i];
+				final long end = boundaries[i+1];
 
-					// Check the type of log
-					if(values[3].equals("w")) {
-						// Weight
-						lCollection.addWeightLog( date, Double.parseDouble(values[4]) );
+				parsed.add(pool.submit(new Callable<LogRows>() {
+					@Override
+					public LogRows call() throws IOException {
+						return readLogRows( start, end, mapped, new LogRows( null ) );
 					}
-					else if(values[3].equals("c")) {
-						// Calorie
-						lCollection.addCalorieLimit( date, Double.parseDouble(values[4]));
+				}));
+			}
+
+			// Merge in file order so the logs end up the same as a sequential read
+			int invalid = 0;
+			for(Future<LogRows> rows : parsed) {
+				rows.get().addTo( lCollection );
+				invalid += rows.get().invalid;
+			}
+
+			warnSkipped( LOG_CSV, invalid );
+		}
+		catch(IOException | InterruptedException | ExecutionException e) {
+			e.printStackTrace();
+			System.exit( 1 );
+		}
+	}
+
+	/**
+	 * Reports rows that were skipped because they are malformed, ie.) "2018,10,15,f,pizza" without servings, or their
+	 * date does not exist, ie.) 2018,02,30
+	 *
+	 * @param file
+	 * @param skipped number of skipped rows
+	 */
+	private void warnSkipped(String file, int skipped) {
+		if(skipped > 0) {
+			System.err.println( String.format("Skipped %d malformed rows of %s", skipped, file) );
+		}
+	}
+
+	/**
+	 * Parses the rows of log.csv between two row boundaries
+	 *
+	 * @param start
+	 * @param end
+	 * @param mapped
+	 * @param rows where the parsed rows are stored
+	 * @return rows
+	 * @throws IOException
+	 */
+	private LogRows readLogRows(long start, long end, boolean mapped, LogRows rows) throws IOException {
+		try(CsvReader reader = new CsvReader( LOG_CSV, start, end, mapped )) {
+			int lastYear = 0, lastMonth = 0, lastDay = 0;
+			long date = 0;
+
+			while(reader.nextRow()) {
+				if(reader.fieldCount() > 3) {
+					// Get the date as an epoch day, rows of the same day are usually next to each other
+					try {
+						int year = reader.getInt(0);
+						int month = reader.getInt(1);
+						int day = reader.getInt(2);
+
+						if(year != lastYear || month != lastMonth || day != lastDay) {
+							date = LogCollection.toEpochDay( year, month, day );
+							lastYear = year;
+							lastMonth = month;
+							lastDay = day;
+						}
 					}
-					else if(values[3].equals("f")) {
-						// Food
-						values[4] = values[4].toLowerCase();
-						lCollection.addFoodLog( date, values[4], values[5] );
+					catch(IllegalArgumentException iae) {
+						rows.invalid++;
+						continue;
+					}
+
+					// Check the type of log, each needs its value fields
+					try {
+						if((reader.fieldEquals(3, 'w') || reader.fieldEquals(3, 'c')) && reader.fieldCount() > 4) {
+							// Weight or calorie
+							rows.add( date, reader.getString(3).charAt(0), null, reader.getDouble(4) );
+						}
+						else if((reader.fieldEquals(3, 'f') || reader.fieldEquals(3, 'e')) && reader.fieldCount() > 5) {
+							// Food or exercise
+							rows.add( date, reader.getString(3).charAt(0), reader.getCachedLowerCase(4), reader.getDouble(5) );
+						}
+						else {
+							rows.invalid++;
+						}
 					}
-					else if(values[3].equals("e")) {
-						// Food
-						values[4] = values[4].toLowerCase();
-						lCollection.addExerciseLog( date, values[4], values[5] );
+					catch(NumberFormatException nfe) {
+						rows.invalid++;
 					}
 				}
+				else if(reader.fieldCount() > 0) {
+					rows.invalid++;
+				}
 			}
-			// Close scanner
-			scn.close();
-		}
-		catch(FileNotFoundException fnfe) {
-			fnfe.printStackTrace();
-			System.exit( 1 );
 		}
+
+		return rows;
 	}
 
 	/**
-	 * Writes data back into food.csv
+	 * Writes all foods from the FoodCollection into a file in the format of food.csv
+	 *
+	 * @param file
+	 * @throws IOException
 	 */
-	private void writeFood() {
+	private void writeFood(String file) throws IOException {
 		// Write to food.csv
 		StringBuilder s = new StringBuilder();
 
-		try {
-			pw = new PrintWriter( new FileOutputStream( FOOD_CSV ) );
-
+		// Unlike a PrintWriter, the writer throws when the file cannot be written
+		try(Writer out = new BufferedWriter( new FileWriter( file ) )) {
 			// Iterate all basic foods and save into food.csv file
 			for(IFood f : fCollection.getCollection().values()) {
 				// Save the basic food objects first
 				if(f instanceof BasicFood) {
-					s.append(
-							String.format("b,%s,%s,%s,%s,%s%n", f.getName(), ((BasicFood) f).getCalories(), ((BasicFood) f).getFat(), ((BasicFood) f).getCarb(), ((BasicFood) f).getProtein() )
-					);
+					s.append( formatFood(f) ).append( "\n" );
 				}
 			}
 
 			// Iterate all recipes and save into food.csv file
 			for(IFood f : fCollection.getCollection().values()) {
 				if(f instanceof Recipe) {
-					s.append(
-							String.format("r,%s,", f.getName())
-					);
-
-					// Get all ingredients and their serving sizes
-					for(IFood i : ((Recipe) f).getIngredients().keySet()) {
-						s.append(
-								String.format("%s,%s,", i.getName(), ((Recipe) f).getIngredients().get(i))
-						);
-					}
-
-					s.setLength(s.length()-1); // Remove trailing comma
-					s.append("\n");
+					s.append( formatFood(f) ).append( "\n" );
 				}
 			}
 
-			s.setLength(s.length()-1); // Remove trailing line break
+			if(s.length() > 0) {
+				s.setLength(s.length()-1); // Remove trailing line break
+			}
 
 			// Write file
-			pw.println( s );
-			pw.flush();
-			pw.close();
-		}
-		catch(FileNotFoundException fnfe) {
-			fnfe.printStackTrace();
-			System.exit( 1 );
+			out.append( s ).append( System.lineSeparator() );
 		}
 	}
 
 	/**
-	 * Writes data back into exercise.csv
+	 * Writes all exercises from the ExerciseCollection into a file in the format of exercise.csv
+	 *
+	 * @param file
+	 * @throws IOException
 	 */
-	private void writeExercise() {
+	private void writeExercise(String file) throws IOException {
 		// Write to exercise.csv
 		StringBuilder s = new StringBuilder();
 
-		try {
-			pw = new PrintWriter( new FileOutputStream( EXERCISE_CSV ) );
-
+		// Unlike a PrintWriter, the writer throws when the file cannot be written
+		try(Writer out = new BufferedWriter( new FileWriter( file ) )) {
 			// Iterate all exercises and save into exercise.csv file
 			for(Exercise exercise : eCollection.getAllExercises()) {
-				s.append(
-						String.format("e,%s,%.1f %n", exercise.getName(), exercise.getCaloriesPerHour())
-				);
+				s.append( formatExercise(exercise) ).append( "\n" );
 			}
 
-			s.setLength(s.length()-1); // Remove trailing line break
+			if(s.length() > 0) {
+				s.setLength(s.length()-1); // Remove trailing line break
+			}
 
 			// Write file
-			pw.println( s );
-			pw.flush();
-			pw.close();
+			out.append( s ).append( System.lineSeparator() );
 		}
-		catch(FileNotFoundException fnfe) {
-			fnfe.printStackTrace();
-			System.exit( 1 );
+	}
+
+	/**
+	 * Formats a food as a row of food.csv, without the line break
+	 *
+	 * @param f
+	 * @return String
+	 */
+	public static String formatFood(IFood f) {
+		if(f instanceof Recipe) {
+			StringBuilder s = new StringBuilder();
+			s.append( String.format("r,%s", f.getName()) );
+
+			// Get all ingredients and their serving sizes
+			for(Map.Entry<IFood, Double> i : ((Recipe) f).getIngredients().entrySet()) {
+				s.append( String.format(",%s,%s", i.getKey().getName(), i.getValue()) );
+			}
+
+			return s.toString();
 		}
+
+		double[] n = f.getNutrients( new double[IFood.NUTRIENT_COUNT] );
+		return String.format("b,%s,%s,%s,%s,%s", f.getName(), n[IFood.CALORIES], n[IFood.FAT], n[IFood.CARB], n[IFood.PROTEIN] );
 	}
 
 	/**
-	 * Writes data back into log.csv
+	 * Formats an exercise as a row of exercise.csv, without the line break
+	 *
+	 * @param exercise
+	 * @return String
 	 */
-	private void writeLog() {
+	public static String formatExercise(Exercise exercise) {
+		return String.format("e,%s,%.1f ", exercise.getName(), exercise.getCaloriesPerHour());
+	}
+
+	/**
+	 * Writes all data from the LogCollection into a file in the format of log.csv
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	private void writeLog(String file) throws IOException {
 		// Write to log.csv
 		StringBuilder s = new StringBuilder();
 
-		try {
-			pw = new PrintWriter( new FileOutputStream( LOG_CSV ) );
+		// Unlike a PrintWriter, the writer throws when the file cannot be written
+		try(Writer out = new BufferedWriter( new FileWriter( file ) )) {
+			// Save every day in date order, as they were when the save started
+			LogSnapshot logs = lCollection.getSnapshot();
+			for(int d=0; d<logs.getDayCount(); d++) {
+				DayLog day = logs.getDayAt(d);
 
-			// Get all log data
-			Map<String, List<String>> loggedFoods = lCollection.getFoodLogCollection();
-			Map<String, List<String>> loggedExercises = lCollection.getExerciseLogCollection();
-			Map<String, Double> loggedWeights = lCollection.getWeightLogCollection();
-			Map<String, Double> loggedCalories = lCollection.getCalorieLogCollection();
+				// Format the date into yyyy,mm,dd once for all rows of the day
+				String date = LogCollection.toDate( logs.getEpochDay(d) ).replace('-', ',');
 
-			// Save all logged weights
-			for(String d : loggedWeights.keySet()) {
-				// Parse date back into yyyy,mm,dd format
-				String[] dates = d.split("-");
+				// Save the logged weight and calories
+				if(!Double.isNaN(day.getWeight())) {
+					s.append( date ).append( ",w," ).append( day.getWeight() ).append( "\n" );
+				}
+				if(!Double.isNaN(day.getCalorieLimit())) {
+					s.append( date ).append( ",c," ).append( day.getCalorieLimit() ).append( "\n" );
+				}
+
+				// Save the logged foods
+				for(int i=0; i<day.getFoodCount(); i++) {
+					s.append( date ).append( ",f," ).append( day.getFoodName(i) ).append( ',' ).append( day.getFoodServings(i) ).append( "\n" );
+				}
 
-				s.append(
-						String.format("%s,%s,%s,w,", dates[0], dates[1], dates[2])
-				);
+				// Save the logged exercises
+				for(int i=0; i<day.getExerciseCount(); i++) {
+					s.append( date ).append( ",e," ).append( day.getExerciseName(i) ).append( ',' ).append( day.getExerciseDuration(i) ).append( "\n" );
+				}
+			}
 
-				s.append( String.format("%s%n", loggedWeights.get(d)) );
+			if(s.length() > 0) {
+				s.setLength(s.length()-1); // Remove trailing line break
 			}
 
-			// Save all logged calories
-			for(String d : loggedCalories.keySet()) {
-				// Parse date back into yyyy,mm,dd format
-				String[] dates = d.split("-");
+			// Write file
+			out.append( s );
+		}
+	}
+
+	/**
+	 * The foods of food.csv or its journal, kept until the whole file is read and then added in dependency order.
+	 *
+	 * Every name gets an id the first time it shows up and a later row for the same name replaces the earlier one,
+	 * the same as adding them one by one would. Recipe ingredients that are defined in the file are resolved to
+	 * their ids, the recipes are sorted so each one comes after the recipes it is made of, and any other
+	 * ingredient is looked up in the FoodCollection, ie.) a journal that uses foods of food.csv.
+	 */
+	private static class FoodRows {
+		private Map<String, Integer> ids = new HashMap<>(); // Lower case name -> id
+		private List<String> names = new ArrayList<>();
+		private List<double[]> nutrients = new ArrayList<>(); // null for recipes
+		private List<String[]> ingredients = new ArrayList<>(); // null for basic foods
+		private List<double[]> servings = new ArrayList<>();
+
+		void addBasicFood(String name, double calories, double fat, double carb, double protein) {
+			set( name, new double[] { calories, fat, carb, protein }, null, null );
+		}
+
+		void addRecipe(String name, String[] ingredientNames, double[] ingredientServings) {
+			set( name, null, ingredientNames, ingredientServings );
+		}
 
-				s.append(
-						String.format("%s,%s,%s,c,", dates[0], dates[1], dates[2])
-				);
+		private void set(String name, double[] values, String[] ingredientNames, double[] ingredientServings) {
+			Integer id = ids.get( name.toLowerCase() );
 
-				s.append( String.format("%s%n", loggedCalories.get(d)) );
+			if(id == null) {
+				ids.put( name.toLowerCase(), names.size() );
+				names.add( name );
+				nutrients.add( values );
+				ingredients.add( ingredientNames );
+				servings.add( ingredientServings );
 			}
+			else {
+				names.set( id, name );
+				nutrients.set( id, values );
+				ingredients.set( id, ingredientNames );
+				servings.set( id, ingredientServings );
+			}
+		}
 
-			// Save all logged foods
-			for(String d : loggedFoods.keySet()) {
-				// Create an ArrayList of the foods by servings for the day
-				List<String> foodsByServings = new ArrayList<>( loggedFoods.get(d) );
+		/**
+		 * Adds the basic foods and then the recipes, each recipe after the recipes it is made of.
+		 *
+		 * Recipes that are part of a cycle, ie.) a recipe that is its own ingredient, cannot be ordered. They are
+		 * added last in file order and an ingredient on the cycle is only kept if a food of that name was already
+		 * in the FoodCollection.
+		 *
+		 * @param fCollection
+		 * @param fFactory
+		 * @param file the file the rows came from, for warnings
+		 */
+		void addTo(FoodCollection fCollection, FoodFactory fFactory, String file) {
+			int size = names.size();
+			IFood[] foods = new IFood[size];
+
+			// Basic foods do not depend on anything
+			for(int id=0; id<size; id++) {
+				double[] n = nutrients.get( id );
+
+				if(n != null) {
+					foods[id] = fFactory.createBasicFood( names.get(id), n[IFood.CALORIES], n[IFood.FAT], n[IFood.CARB], n[IFood.PROTEIN] );
+					fCollection.addFood( foods[id].getName().toLowerCase(), foods[id] );
+				}
+			}
 
-				// Iterate through the list
-				for(int i=0; i < foodsByServings.size(); i+=2) {
-					// Parse date back into yyyy,mm,dd format
-					String[] dates = d.split("-");
+			// Resolve the ingredients to ids and count how many recipes each recipe is still waiting on
+			int[][] references = new int[size][];
+			int[] waiting = new int[size];
+			int[][] dependents = new int[size][];
+			int[] dependentCount = new int[size];
 
-					s.append(
-							String.format("%s,%s,%s,f,", dates[0], dates[1], dates[2])
-					);
+			for(int id=0; id<size; id++) {
+				String[] ingredientNames = ingredients.get( id );
+				if(ingredientNames == null) {
+					continue;
+				}
+
+				references[id] = new int[ingredientNames.length];
+				for(int i=0; i<ingredientNames.length; i++) {
+					Integer ref = ids.get( ingredientNames[i] );
+					references[id][i] = ref == null ? -1 : ref;
 
-					s.append( String.format("%s,%s", foodsByServings.get(i), foodsByServings.get(i+1)) );
+					if(ref != null && ingredients.get( ref ) != null) {
+						waiting[id]++;
 
-					s.append("\n");
+						if(dependents[ref] == null) {
+							dependents[ref] = new int[2];
+						}
+						else if(dependentCount[ref] == dependents[ref].length) {
+							dependents[ref] = Arrays.copyOf( dependents[ref], dependentCount[ref] * 2 );
+						}
+						dependents[ref][dependentCount[ref]++] = id;
+					}
 				}
 			}
 
-			// Save all logged exercises
-			for(String d : loggedExercises.keySet()) {
-				// Create an ArrayList of all exercises for the day
-				List<String> exercisesAndDurations = new ArrayList<>( loggedExercises.get(d) );
+			// Add the recipes that are not waiting on any other, which frees up the recipes that use them
+			int[] queue = new int[size];
+			int head = 0;
+			int tail = 0;
 
-				// Iterate through the list
-				for(int i=0; i<exercisesAndDurations.size(); i+=2) {
-					// Parse date back into yyyy,mm,dd format
-					String[] dates = d.split("-");
+			for(int id=0; id<size; id++) {
+				if(references[id] != null && waiting[id] == 0) {
+					queue[tail++] = id;
+				}
+			}
 
-					s.append(
-							String.format("%s,%s,%s,e,", dates[0], dates[1], dates[2])
-					);
+			while(head < tail) {
+				int id = queue[head++];
+				addRecipe( id, references[id], foods, fCollection, fFactory );
 
-					s.append( String.format("%s,%s\n", exercisesAndDurations.get(i), exercisesAndDurations.get(i+1)) );
+				for(int d=0; d<dependentCount[id]; d++) {
+					int dependent = dependents[id][d];
+
+					if(--waiting[dependent] == 0) {
+						queue[tail++] = dependent;
+					}
 				}
 			}
 
-			s.setLength(s.length()-1); // Remove trailing line break
+			// Whatever is left is on a cycle or uses a recipe that is
+			int cyclic = 0;
+			for(int id=0; id<size; id++) {
+				if(references[id] != null && foods[id] == null) {
+					addRecipe( id, references[id], foods, fCollection, fFactory );
+					cyclic++;
+				}
+			}
 
-			// Write file
-			pw.print( s );
-			pw.flush();
-			pw.close();
+			if(cyclic > 0) {
+				System.err.println( String.format("%d recipes of %s are part of or depend on a cycle of recipes", cyclic, file) );
+			}
+		}
+
+		private void addRecipe(int id, int[] references, IFood[] foods, FoodCollection fCollection, FoodFactory fFactory) {
+			String[] ingredientNames = ingredients.get( id );
+			double[] ingredientServings = servings.get( id );
+			Map<IFood, Double> ingredientsByServing = new HashMap<>();
+
+			for(int i=0; i<references.length; i++) {
+				IFood ingredient = references[i] >= 0 ? foods[references[i]] : null;
+
+				if(ingredient == null) {
+					ingredient = fCollection.getCollection().get( ingredientNames[i] );
+				}
+
+				if(ingredient != null) {
+					ingredientsByServing.put( ingredient, ingredientServings[i] );
+				}
+			}
+
+			foods[id] = fFactory.createRecipe( names.get(id), ingredientsByServing );
+			fCollection.addFood( foods[id].getName().toLowerCase(), foods[id] );
+		}
+	}
+
+	/**
+	 * Rows parsed from one chunk of log.csv, kept until they can be added to the LogCollection in order
+	 */
+	private static class LogRows {
+		private LogCollection direct; // When set, rows are added to it right away instead of being kept
+
+		private long[] dates = new long[1024];
+		private char[] types = new char[1024];
+		private String[] names = new String[1024];
+		private double[] values = new double[1024];
+		private int size;
+		private int invalid; // Rows skipped because they are malformed or have an invalid date
+
+		LogRows(LogCollection direct) {
+			this.direct = direct;
+		}
+
+		void add(long date, char type, String name, double value) {
+			if(direct != null) {
+				addTo( direct, date, type, name, value );
+				return;
+			}
+
+			if(size == dates.length) {
+				dates = Arrays.copyOf( dates, size * 2 );
+				types = Arrays.copyOf( types, size * 2 );
+				names = Arrays.copyOf( names, size * 2 );
+				values = Arrays.copyOf( values, size * 2 );
+			}
+
+			dates[size] = date;
+			types[size] = type;
+			names[size] = name;
+			values[size] = value;
+			size++;
 		}
-		catch(FileNotFoundException fnfe) {
-			fnfe.printStackTrace();
-			System.exit(1);
+
+		void addTo(LogCollection lCollection) {
+			for(int i=0; i<size; i++) {
+				addTo( lCollection, dates[i], types[i], names[i], values[i] );
+			}
+		}
+
+		private static void addTo(LogCollection lCollection, long date, char type, String name, double value) {
+			switch(type) {
+				case 'w':
+					lCollection.addWeightLog( date, value );
+					break;
+				case 'c':
+					lCollection.addCalorieLimit( date, value );
+					break;
+				case 'f':
+					lCollection.addFoodLog( date, name, value );
+					break;
+				case 'e':
+					lCollection.addExerciseLog( date, name, value );
+					break;
+			}
 		}
 	}
 }
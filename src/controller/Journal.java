@@ -0,0 +1,299 @@
+package controller;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * A write-ahead journal for one of the csv files. Every change is appended to the journal and forced to disk as
+ * it happens, so nothing is lost if the application stops before the csv file is rewritten.
+ *
+ * A csv file is only ever replaced by writing a complete temp file and renaming it over the old one (see commit),
+ * and recover() finishes or rolls back a replacement that was interrupted by a crash.
+ *
+ * Every record ends with a line break. A crash in the middle of an append leaves a last line without one, which is
+ * never replayed (see completeLength) and is cut off when the journal is opened again.
+ *
+ * @author Team A
+ */
+public class Journal {
+	private static final Journal foodJournal = new Journal();
+	private static final Journal exerciseJournal = new Journal();
+
+	private String fileName; // null until the journal is opened
+	private FileChannel channel;
+
+	protected Journal() {
+	}
+
+	/**
+	 * Returns the journal of food.csv, its records are rows in the format of food.csv
+	 *
+	 * @return Journal
+	 */
+	public static Journal getFoodJournal() {
+		return foodJournal;
+	}
+
+	/**
+	 * Returns the journal of exercise.csv, its records are rows in the format of exercise.csv
+	 *
+	 * @return Journal
+	 */
+	public static Journal getExerciseJournal() {
+		return exerciseJournal;
+	}
+
+	/**
+	 * Starts recording changes to the given file, changes made before the journal is opened are not recorded.
+	 *
+	 * A record that was cut off by a crash is dropped first, so the next record starts on a line of its own.
+	 *
+	 * @param fileName
+	 * @throws IOException
+	 */
+	public synchronized void open(String fileName) throws IOException {
+		close();
+
+		this.fileName = fileName;
+		this.channel = FileChannel.open( Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND );
+		this.channel.truncate( completeLength(fileName) );
+	}
+
+	/**
+	 * Checks if the journal is recording changes
+	 *
+	 * @return boolean
+	 */
+	public synchronized boolean isOpen() {
+		return channel != null;
+	}
+
+	/**
+	 * Appends a record and forces it to disk, callers make their change only once this succeeded
+	 *
+	 * @param record a single line without the line break
+	 * @return false if the record could not be written, ie.) the disk is full; it is then removed again
+	 */
+	public synchronized boolean append(String record) {
+		if(channel == null) {
+			return true; // The csv file is rewritten on save instead
+		}
+
+		long size = -1;
+
+		try {
+			size = channel.size();
+
+			ByteBuffer bytes = ByteBuffer.wrap( (record + "\n").getBytes( StandardCharsets.UTF_8 ) );
+			while(bytes.hasRemaining()) {
+				channel.write( bytes );
+			}
+			channel.force( false );
+			return true;
+		}
+		catch(IOException ioe) {
+			ioe.printStackTrace();
+
+			// Drop whatever part of the record made it, so the next one does not end up on the same line
+			try {
+				if(size >= 0) {
+					channel.truncate( size );
+				}
+			}
+			catch(IOException e) {
+				e.printStackTrace();
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the size of the journal file in bytes
+	 *
+	 * @return long
+	 */
+	public synchronized long length() {
+		try {
+			return channel == null ? 0 : channel.size();
+		}
+		catch(IOException ioe) {
+			ioe.printStackTrace();
+			return 0;
+		}
+	}
+
+	/**
+	 * Replaces a csv file with a newly written one and drops the first bytes of the journal that it already contains.
+	 * Records appended after those bytes are kept.
+	 *
+	 * The rename of the temp file is the commit point: the rest of the journal is written to a temp file first, and
+	 * recover() completes the swap if the application stops between the two renames.
+	 *
+	 * @param temp the newly written csv file
+	 * @param target the csv file it replaces
+	 * @param consumed how many bytes of the journal the new csv file contains
+	 * @throws IOException
+	 */
+	public synchronized void commit(String temp, String target, long consumed) throws IOException {
+		force( temp );
+
+		if(channel == null) {
+			move( temp, target );
+			return;
+		}
+
+		// Copy the records that are not part of the new csv file
+		String rest = fileName + ".tmp";
+		try(FileChannel in = FileChannel.open( Paths.get(fileName), StandardOpenOption.READ );
+		    FileChannel out = FileChannel.open( Paths.get(rest), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING )) {
+			long size = in.size();
+			long pos = Math.min( consumed, size );
+			while(pos < size) {
+				pos += in.transferTo( pos, size - pos, out );
+			}
+			out.force( true );
+		}
+
+		move( temp, target );
+
+		channel.close();
+		move( rest, fileName );
+		channel = FileChannel.open( Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND );
+	}
+
+	/**
+	 * Replaces a csv file with a newly written one that already contains every record of a journal that is not
+	 * recording, and empties that journal, ie.) with --no-journal the journal left by an earlier run was replayed into
+	 * the models on startup and must not be replayed again on the next one.
+	 *
+	 * Uses the same two renames as commit(), with an empty rest, so recover() empties the journal if the application
+	 * stops between them.
+	 *
+	 * @param temp the newly written csv file
+	 * @param target the csv file it replaces
+	 * @param journal the journal of the csv file
+	 * @throws IOException
+	 */
+	public static void commitAll(String temp, String target, String journal) throws IOException {
+		force( temp );
+
+		if(new File( journal ).length() == 0) {
+			move( temp, target );
+			return;
+		}
+
+		String rest = journal + ".tmp";
+		new FileOutputStream( rest ).close();
+		force( rest );
+
+		move( temp, target );
+		move( rest, journal );
+	}
+
+	/**
+	 * Stops recording changes
+	 *
+	 * @throws IOException
+	 */
+	public synchronized void close() throws IOException {
+		if(channel != null) {
+			channel.close();
+			channel = null;
+		}
+	}
+
+	/**
+	 * Returns the length of a journal up to and including its last line break, ie.) without a record that was cut
+	 * off by a crash. Replaying stops there.
+	 *
+	 * @param file
+	 * @return long, 0 if the file does not exist
+	 * @throws IOException
+	 */
+	public static long completeLength(String file) throws IOException {
+		if(!new File( file ).exists()) {
+			return 0;
+		}
+
+		try(FileChannel fc = FileChannel.open( Paths.get(file), StandardOpenOption.READ )) {
+			ByteBuffer bb = ByteBuffer.allocate( 4096 );
+			long end = fc.size();
+
+			// Search backwards from the end for the last line break
+			while(end > 0) {
+				long start = Math.max( 0, end - bb.capacity() );
+
+				bb.clear();
+				bb.limit( (int) (end - start) );
+				while(bb.hasRemaining()) {
+					if(fc.read( bb, start + bb.position() ) < 0) {
+						break;
+					}
+				}
+
+				for(int i=bb.position()-1; i>=0; i--) {
+					if(bb.get(i) == '\n') {
+						return start + i + 1;
+					}
+				}
+
+				end = start;
+			}
+
+			return 0;
+		}
+	}
+
+	/**
+	 * Cleans up after a commit that did not finish, must be called before the csv file and its journal are read.
+	 *
+	 * If the new csv file was already renamed into place, the journal is swapped for the rest written alongside it;
+	 * otherwise the half finished temp files are discarded and the old csv file and journal are still complete.
+	 *
+	 * @param target the csv file
+	 * @param journal the journal of the csv file
+	 * @throws IOException
+	 */
+	public static void recover(String target, String journal) throws IOException {
+		File temp = new File( target + ".tmp" );
+		File rest = new File( journal + ".tmp" );
+
+		if(rest.exists() && !temp.exists()) {
+			move( rest.getPath(), journal );
+		}
+
+		temp.delete();
+		rest.delete();
+	}
+
+	/**
+	 * Forces a file's contents to disk
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	static void force(String file) throws IOException {
+		try(FileChannel fc = FileChannel.open( Paths.get(file), StandardOpenOption.WRITE )) {
+			fc.force( true );
+		}
+	}
+
+	/**
+	 * Renames a file over another one, atomically where the file system supports it
+	 *
+	 * @param from
+	 * @param to
+	 * @throws IOException
+	 */
+	static void move(String from, String to) throws IOException {
+		try {
+			Files.move( Paths.get(from), Paths.get(to), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING );
+		}
+		catch(AtomicMoveNotSupportedException amnse) {
+			Files.move( Paths.get(from), Paths.get(to), StandardCopyOption.REPLACE_EXISTING );
+		}
+	}
+}
@@ -3,24 +3,31 @@ package controller;
 import model.exercise.Exercise;
 import model.exercise.ExerciseCollection;
 import model.food.FoodCollection;
-import model.log.LogCollection;
 import model.food.IFood;
+import model.log.DayLog;
+import model.log.LogCollection;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Handles actions from log related panels
  *
+ * Logging and removing entries runs on the ModelWriter thread, the getters read the LogCollection directly.
+ *
  * @author Team A
  */
 public class LogController {
+	private static final int MAX_SUGGESTIONS = 3; // Most names offered for a mistyped name
+	private static final String NOT_SAVED = "Could not save the change, please check that the disk is not full and try again!";
+
 	private LogCollection lCollection;
 	private ExerciseController eController;
 	private FoodController fController;
+	private ModelWriter writer; // Runs every change to the collections
 
 	public LogController(FoodCollection f, LogCollection l, ExerciseCollection e) {
 		this.lCollection = l; // Get model
+		this.writer = ModelWriter.getInstance();
 		this.eController = new ExerciseController(e); // Get model
 		this.fController = new FoodController( f );
 	}
@@ -28,37 +35,85 @@ public class LogController {
 	/**
 	 * Returns a list of the names of all foods in FoodCollection
 	 *
-	 * @return List of food names
+	 * @return List of food names in alphabetical order
 	 */
 	public List<String> getFoodData() {
-		List<IFood> foods = fController.getFoods();
+		return fController.searchFoods( "", Integer.MAX_VALUE );
+	}
 
-		// Create an ArrayList to hold the names of the foods from List foods
-		List<String> foodNames = new ArrayList<>();
+	/**
+	 * Returns the names of the foods that start with what was typed
+	 *
+	 * @param prefix
+	 * @param limit the most names to return
+	 * @return List of food names in alphabetical order
+	 */
+	public List<String> searchFoodData(String prefix, int limit) {
+		return fController.searchFoods( prefix, limit );
+	}
 
-		for(IFood f : foods) {
-			foodNames.add( f.getName() );
-		}
+	/**
+	 * Returns the name of a food as it is shown, ie.) "Hot Dog" for "hot dog"
+	 *
+	 * @param key name the food is stored under
+	 * @return String or null if there is no such food
+	 */
+	public String getFoodName(String key) {
+		IFood food = fController.getFoodByName( key );
+		return food == null ? null : food.getName();
+	}
 
-		return foodNames;
+	/**
+	 * Returns the names of the foods spelled most like a mistyped name
+	 *
+	 * @param name
+	 * @param limit the most names to return
+	 * @return List of food names, most similar first
+	 */
+	public List<String> suggestFoodData(String name, int limit) {
+		return fController.suggestFoods( name, limit );
 	}
 
 	/**
 	 * Returns a list of the names of all exercises in ExerciseCollection
 	 *
-	 * @return List of exercise names
+	 * @return List of exercise names in alphabetical order
 	 */
 	public List<String> getExerciseData() {
-		List<Exercise> exercises = eController.getAllExercises();
+		return eController.searchExercises( "", Integer.MAX_VALUE );
+	}
 
-		// Create an ArrayList to hold the names of the exercise
-		List<String> exerciseNames = new ArrayList<>();
+	/**
+	 * Returns the name of an exercise as it is shown, ie.) "Running" for "running"
+	 *
+	 * @param key name the exercise is stored under
+	 * @return String or null if there is no such exercise
+	 */
+	public String getExerciseName(String key) {
+		Exercise exercise = eController.getExercise( key );
+		return exercise == null ? null : exercise.getName();
+	}
 
-		for(Exercise e : exercises) {
-			exerciseNames.add( e.getName() );
-		}
+	/**
+	 * Returns the names of the exercises spelled most like a mistyped name
+	 *
+	 * @param name
+	 * @param limit the most names to return
+	 * @return List of exercise names, most similar first
+	 */
+	public List<String> suggestExerciseData(String name, int limit) {
+		return eController.suggestExercises( name, limit );
+	}
 
-		return exerciseNames;
+	/**
+	 * Returns the names of the exercises that start with what was typed
+	 *
+	 * @param prefix
+	 * @param limit the most names to return
+	 * @return List of exercise names in alphabetical order
+	 */
+	public List<String> searchExerciseData(String prefix, int limit) {
+		return eController.searchExercises( prefix, limit );
 	}
 
 	/**
@@ -101,6 +156,71 @@ public class LogController {
 		return lCollection.getExerciseLog( date );
 	}
 
+	/**
+	 * Gets everything logged for the day, foods and exercises as typed entries
+	 *
+	 * @param date
+	 * @return DayLog or null if nothing was logged
+	 */
+	public DayLog getDayLog(String date) {
+		return lCollection.getDay( date );
+	}
+
+	/**
+	 * Returns the running totals of the calories and nutrients consumed on a day
+	 *
+	 * @param date
+	 * @return totals in format: [calories, fat, carb, protein]
+	 */
+	public double[] getConsumedTotals(String date) {
+		return lCollection.getConsumedTotals( date );
+	}
+
+	/**
+	 * Returns the running totals of the calories and nutrients consumed on a day
+	 *
+	 * @param day a DayLog from getDayLog() or getLogsBetween(), may be null
+	 * @return totals in format: [calories, fat, carb, protein]
+	 */
+	public double[] getConsumedTotals(DayLog day) {
+		return lCollection.getConsumedTotals( day );
+	}
+
+	/**
+	 * Returns the calories burned on a day
+	 *
+	 * @param date
+	 * @return burned calories
+	 */
+	public double getBurnedCalories(String date) {
+		return lCollection.getBurnedCalories( date );
+	}
+
+	/**
+	 * Returns the calories burned on a day
+	 *
+	 * @param day a DayLog from getDayLog() or getLogsBetween(), may be null
+	 * @return burned calories
+	 */
+	public double getBurnedCalories(DayLog day) {
+		return lCollection.getBurnedCalories( day );
+	}
+
+	/**
+	 * Gets everything logged between two dates, in date order
+	 *
+	 * @param from first date, inclusive
+	 * @param to last date, inclusive
+	 * @return List of DayLogs, days without logs are left out; null if a date is not valid
+	 */
+	public List<DayLog> getLogsBetween(String from, String to) {
+		if(!isValidDate(from) || !isValidDate(to)) {
+			return null;
+		}
+
+		return lCollection.getDays( from, to );
+	}
+
 	/**
 	 * Logs a new food to the LogCollection
 	 *
@@ -110,6 +230,18 @@ public class LogController {
 	 * @return Error String; empty if valid execution
 	 */
 	public String logFood(String date, String name, String servings) {
+		return writer.execute(new ModelWriter.Command() {
+			@Override
+			public String execute() {
+				return doLogFood( date, name, servings );
+			}
+		});
+	}
+
+	/**
+	 * Runs logFood() on the ModelWriter thread
+	 */
+	private String doLogFood(String date, String name, String servings) {
 		try {
 			name = name.toLowerCase();
 			if (name.equals("")) {
@@ -126,8 +258,18 @@ public class LogController {
 			return "Please enter a number greater than 0 for servings!";
 		}
 
+		if(!isValidDate(date)) {
+			return "Please enter a date in yyyy-mm-dd format!";
+		}
+
 		if(this.fController.getFoodByName(name) == null){
-			return "This is not a valid selection, please create this food or recipe before logging it!";
+			return "This is not a valid selection, please create this food or recipe before logging it!"
+					+ didYouMean( fController.suggestFoods(name, MAX_SUGGESTIONS) );
+		}
+
+		// Journal first, so a change that could not be saved is not made either
+		if(!LogJournal.getInstance().logFood(date, name, Double.parseDouble( servings ))) {
+			return NOT_SAVED;
 		}
 
 		lCollection.addFoodLog(date, name, servings);
@@ -143,6 +285,18 @@ public class LogController {
 	 * @return String based on the results of this method
 	 */
 	public String logExercise(String date, String name, String duration) {
+		return writer.execute(new ModelWriter.Command() {
+			@Override
+			public String execute() {
+				return doLogExercise( date, name, duration );
+			}
+		});
+	}
+
+	/**
+	 * Runs logExercise() on the ModelWriter thread
+	 */
+	private String doLogExercise(String date, String name, String duration) {
 		try {
 			name = name.toLowerCase();
 			if(name.equals("")) {
@@ -160,8 +314,17 @@ public class LogController {
 			return "Please enter a number greater than 0 for duration!";
 		}
 
+		if(!isValidDate(date)) {
+			return "Please enter a date in yyyy-mm-dd format!";
+		}
+
 		if(this.eController.getExercise(name) == null){
-			return "This is not a valid selection, please create this exercise before logging it!";
+			return "This is not a valid selection, please create this exercise before logging it!"
+					+ didYouMean( eController.suggestExercises(name, MAX_SUGGESTIONS) );
+		}
+
+		if(!LogJournal.getInstance().logExercise(date, name, Double.parseDouble( duration ))) {
+			return NOT_SAVED;
 		}
 
 		lCollection.addExerciseLog(date, name, duration);
@@ -176,6 +339,18 @@ public class LogController {
 	 * @return String based on the results of the method
 	 */
 	public String logWeight(String date, String weight) {
+		return writer.execute(new ModelWriter.Command() {
+			@Override
+			public String execute() {
+				return doLogWeight( date, weight );
+			}
+		});
+	}
+
+	/**
+	 * Runs logWeight() on the ModelWriter thread
+	 */
+	private String doLogWeight(String date, String weight) {
 		try {
 			if (Double.parseDouble(weight) <= 0) {
 				throw new NumberFormatException();
@@ -185,6 +360,14 @@ public class LogController {
 			return "Please enter a number greater than 0 for weight";
 		}
 
+		if(!isValidDate(date)) {
+			return "Please enter a date in yyyy-mm-dd format!";
+		}
+
+		if(!LogJournal.getInstance().logWeight(date, Double.parseDouble( weight ))) {
+			return NOT_SAVED;
+		}
+
 		this.lCollection.addWeightLog(date, Double.parseDouble( weight ));
 		return "";
 	}
@@ -197,6 +380,18 @@ public class LogController {
 	 * @return String based on the results of the method
 	 */
 	public String logCalorieLimit(String date, String calorie) {
+		return writer.execute(new ModelWriter.Command() {
+			@Override
+			public String execute() {
+				return doLogCalorieLimit( date, calorie );
+			}
+		});
+	}
+
+	/**
+	 * Runs logCalorieLimit() on the ModelWriter thread
+	 */
+	private String doLogCalorieLimit(String date, String calorie) {
 		try {
 			if (Double.parseDouble(calorie) <= 0) {
 				throw new NumberFormatException();
@@ -206,6 +401,14 @@ public class LogController {
 			return "Please enter a number greater than 0 for calorie limit";
 		}
 
+		if(!isValidDate(date)) {
+			return "Please enter a date in yyyy-mm-dd format!";
+		}
+
+		if(!LogJournal.getInstance().logCalorieLimit(date, Double.parseDouble( calorie ))) {
+			return NOT_SAVED;
+		}
+
 		this.lCollection.addCalorieLimit(date, Double.parseDouble( calorie ));
 		return "";
 	}
@@ -219,6 +422,18 @@ public class LogController {
 	 * @return String based on the results of the method
 	 */
 	public String removeFoodLog(String date, String name, String servings) {
+		return writer.execute(new ModelWriter.Command() {
+			@Override
+			public String execute() {
+				return doRemoveFoodLog( date, name, servings );
+			}
+		});
+	}
+
+	/**
+	 * Runs removeFoodLog() on the ModelWriter thread
+	 */
+	private String doRemoveFoodLog(String date, String name, String servings) {
 		try {
 			name = name.toLowerCase();
 			if (name.equals("")) {
@@ -235,12 +450,18 @@ public class LogController {
 			return "Please enter a number greater than 0 for servings";
 		}
 
+		// Journal first, replaying the removal of a food that is not logged does nothing
+		if(!LogJournal.getInstance().removeFood(date, name, Double.parseDouble( servings ))) {
+			return NOT_SAVED;
+		}
+
 		// Check the return value of removeFoodLog
 		String resString = lCollection.removeFoodLog(date, name, servings);
 		if(resString.equals("Null")) {
 			return "No such log exists!";
 		}
-		else if(resString.contains("duplicate")) {
+
+		if(resString.contains("duplicate")) {
 			return resString;
 		}
 
@@ -256,6 +477,18 @@ public class LogController {
 	 * @return String based on the results of the method
 	 */
 	public String removeExerciseLog(String date, String name, String duration) {
+		return writer.execute(new ModelWriter.Command() {
+			@Override
+			public String execute() {
+				return doRemoveExerciseLog( date, name, duration );
+			}
+		});
+	}
+
+	/**
+	 * Runs removeExerciseLog() on the ModelWriter thread
+	 */
+	private String doRemoveExerciseLog(String date, String name, String duration) {
 		try {
 			name = name.toLowerCase();
 			if (name.equals("")) {
@@ -272,15 +505,50 @@ public class LogController {
 			return "Please enter a number greater than 0 for duration!";
 		}
 
+		if(!LogJournal.getInstance().removeExercise(date, name, Double.parseDouble( duration ))) {
+			return NOT_SAVED;
+		}
+
 		// Check the return value of removeExerciseLog
 		String resString = lCollection.removeExerciseLog(date, name, duration);
 		if(resString.equals("Null")) {
 			return "No such log exists!";
 		}
-		else if(resString.contains("duplicate")) {
+
+		if(resString.contains("duplicate")) {
 			return resString;
 		}
 
 		return "";
 	}
+
+	/**
+	 * Formats suggestions for a mistyped name
+	 *
+	 * @param suggestions
+	 * @return ie.) " Did you mean apple, apple pie?"; empty if there are none
+	 */
+	private String didYouMean(List<String> suggestions) {
+		if(suggestions.isEmpty()) {
+			return "";
+		}
+
+		return " Did you mean " + String.join( ", ", suggestions ) + "?";
+	}
+
+	/**
+	 * Checks if a date is a valid yyyy-mm-dd date
+	 *
+	 * @param date
+	 * @return boolean
+	 */
+	private boolean isValidDate(String date) {
+		try {
+			LogCollection.toEpochDay( date );
+			return true;
+		}
+		catch(IllegalArgumentException | NullPointerException e) {
+			return false;
+		}
+	}
 }
@@ -0,0 +1,120 @@
+package controller;
+
+/**
+ * The journal of log.csv, an append-only record of changes made to the LogCollection.
+ *
+ * Each change is a line in the same format as log.csv with a leading '+' for an added entry or '-' for a removed one,
+ * ie.) "+,2018,10,15,f,hot dog,1.5" or "-,2018,10,15,e,jogging (5 mph),30.0". IOHandler replays the journal after
+ * reading log.csv and folds it back into log.csv in the background.
+ *
+ * There is one journal per application, shared by every LogController.
+ *
+ * @author Team A
+ */
+public class LogJournal extends Journal {
+	private static final LogJournal instance = new LogJournal();
+
+	private LogJournal() {
+	}
+
+	/**
+	 * Returns the journal
+	 *
+	 * @return LogJournal
+	 */
+	public static LogJournal getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Records a logged food
+	 *
+	 * @param date
+	 * @param name
+	 * @param servings
+	 * @return false if it could not be recorded, see Journal.append()
+	 */
+	public boolean logFood(String date, String name, double servings) {
+		return append( '+', date, 'f', name, servings );
+	}
+
+	/**
+	 * Records a removed food log
+	 *
+	 * @param date
+	 * @param name
+	 * @param servings
+	 * @return false if it could not be recorded, see Journal.append()
+	 */
+	public boolean removeFood(String date, String name, double servings) {
+		return append( '-', date, 'f', name, servings );
+	}
+
+	/**
+	 * Records a logged exercise
+	 *
+	 * @param date
+	 * @param name
+	 * @param duration
+	 * @return false if it could not be recorded, see Journal.append()
+	 */
+	public boolean logExercise(String date, String name, double duration) {
+		return append( '+', date, 'e', name, duration );
+	}
+
+	/**
+	 * Records a removed exercise log
+	 *
+	 * @param date
+	 * @param name
+	 * @param duration
+	 * @return false if it could not be recorded, see Journal.append()
+	 */
+	public boolean removeExercise(String date, String name, double duration) {
+		return append( '-', date, 'e', name, duration );
+	}
+
+	/**
+	 * Records a logged weight
+	 *
+	 * @param date
+	 * @param weight
+	 * @return false if it could not be recorded, see Journal.append()
+	 */
+	public boolean logWeight(String date, double weight) {
+		return append( '+', date, 'w', null, weight );
+	}
+
+	/**
+	 * Records a logged calorie limit
+	 *
+	 * @param date
+	 * @param calories
+	 * @return false if it could not be recorded, see Journal.append()
+	 */
+	public boolean logCalorieLimit(String date, double calories) {
+		return append( '+', date, 'c', null, calories );
+	}
+
+	/**
+	 * Appends a record to the journal
+	 *
+	 * @param op '+' or '-'
+	 * @param date yyyy-mm-dd
+	 * @param type log type, ie.) 'f' for food
+	 * @param name food or exercise name, null for weight and calorie limit
+	 * @param value
+	 * @return boolean
+	 */
+	private boolean append(char op, String date, char type, String name, double value) {
+		StringBuilder record = new StringBuilder();
+
+		record.append( op ).append( ',' ).append( date.replace('-', ',') ).append( ',' ).append( type ).append( ',' );
+		if(name != null) {
+			record.append( name ).append( ',' );
+		}
+		record.append( value );
+
+		return append( record.toString() );
+	}
+}
@@ -0,0 +1,266 @@
+package controller;
+
+import model.ObservableCollection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * The one thread that changes the FoodCollection, ExerciseCollection and LogCollection.
+ *
+ * The controllers do not change the collections on the caller's thread, they submit a Command that checks the input,
+ * changes the collections and writes the journal, and wait for its error String. Commands run one at a time in the
+ * order they were submitted, so a check and the change it allows cannot interleave with another thread's, and the
+ * observers are notified in the same order every time.
+ *
+ * Commands that queue up while another one runs are run together as a batch. When the collections are owned, see
+ * own(), a batch of more than one command holds back notifications and sends one BULK event per collection. The
+ * callers of a batch are only woken once it has ended, so the change a caller waited for is published and readable.
+ *
+ * There is one writer per application, shared by every controller.
+ *
+ * @author Team A
+ */
+public class ModelWriter {
+	private static final ModelWriter instance = new ModelWriter();
+
+	/**
+	 * A change to the collections
+	 */
+	public interface Command {
+		/**
+		 * Runs on the writer thread
+		 *
+		 * @return error String; empty if valid execution
+		 */
+		String execute();
+	}
+
+	private BlockingQueue<Task> queue = new LinkedBlockingQueue<>();
+	private volatile ObservableCollection[] owned = new ObservableCollection[0];
+	private Thread thread;
+
+	private volatile long commands; // Commands run
+	private volatile long batches; // Batches run, each of one or more commands
+
+	private ModelWriter() {
+		this.thread = new Thread("model-writer") {
+			@Override
+			public void run() {
+				loop();
+			}
+		};
+		this.thread.setDaemon( true ); // Must not keep the application open after the GUI closes
+		this.thread.start();
+	}
+
+	/**
+	 * Returns the writer
+	 *
+	 * @return ModelWriter
+	 */
+	public static ModelWriter getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Sets the collections whose notifications are combined for a batch of commands
+	 *
+	 * @param collections
+	 */
+	public void own(ObservableCollection... collections) {
+		this.owned = collections.clone();
+	}
+
+	/**
+	 * Runs a command on the writer thread and waits for it
+	 *
+	 * @param command
+	 * @return the command's error String
+	 */
+	public String execute(Command command) {
+		// A command that runs another command, ie.) through a second controller, would wait on itself
+		if(Thread.currentThread() == thread) {
+			return command.execute();
+		}
+
+		return await( submit(command) );
+	}
+
+	/**
+	 * Queues a command without waiting for it, ie.) for logging many entries at once
+	 *
+	 * @param command
+	 * @return Future of the command's error String
+	 */
+	public Future<String> submit(Command command) {
+		Task task = new Task( command );
+		queue.add( task );
+		return task;
+	}
+
+	/**
+	 * Waits for a submitted command
+	 *
+	 * @param result from submit()
+	 * @return the command's error String
+	 */
+	public static String await(Future<String> result) {
+		boolean interrupted = false;
+
+		try {
+			while(true) {
+				try {
+					return result.get();
+				}
+				catch(InterruptedException ie) {
+					interrupted = true; // The command is already queued, so wait for it anyway
+				}
+				catch(ExecutionException ee) {
+					// Throw what the command threw, as if it had run on this thread
+					Throwable cause = ee.getCause();
+					if(cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					}
+					if(cause instanceof Error) {
+						throw (Error) cause;
+					}
+					throw new IllegalStateException( cause );
+				}
+			}
+		}
+		finally {
+			if(interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Returns how many commands ran
+	 *
+	 * @return long
+	 */
+	public long getCommands() {
+		return commands;
+	}
+
+	/**
+	 * Returns how many batches the commands ran in
+	 *
+	 * @return long
+	 */
+	public long getBatches() {
+		return batches;
+	}
+
+	@Override
+	public String toString() {
+		return String.format( "%d commands in %d batches", commands, batches );
+	}
+
+	/**
+	 * Runs the queued commands until the application exits
+	 */
+	private void loop() {
+		List<Task> batch = new ArrayList<>();
+
+		while(true) {
+			try {
+				batch.add( queue.take() );
+			}
+			catch(InterruptedException ie) {
+				continue; // Nothing interrupts the writer on purpose
+			}
+
+			queue.drainTo( batch );
+			run( batch );
+
+			commands += batch.size();
+			batches++;
+			batch.clear();
+		}
+	}
+
+	/**
+	 * Runs a batch of commands, a failing command does not stop the others
+	 *
+	 * @param batch
+	 */
+	private void run(List<Task> batch) {
+		if(batch.size() == 1) {
+			batch.get(0).run();
+			return;
+		}
+
+		ObservableCollection[] collections = owned;
+
+		for(ObservableCollection c : collections) {
+			c.beginBulk();
+		}
+
+		try {
+			for(Task task : batch) {
+				task.execute();
+			}
+		}
+		finally {
+			try {
+				// ie.) the LogCollection publishes the batch's changes in endBulk()
+				for(ObservableCollection c : collections) {
+					c.endBulk();
+				}
+			}
+			finally {
+				for(Task task : batch) {
+					task.complete();
+				}
+			}
+		}
+	}
+
+	/**
+	 * A queued command, whose Future can be completed after the command ran
+	 */
+	private static class Task extends FutureTask<String> {
+		private Command command;
+		private String result;
+		private Throwable failure;
+
+		Task(final Command command) {
+			super(new Callable<String>() {
+				@Override
+				public String call() {
+					return command.execute();
+				}
+			});
+
+			this.command = command;
+		}
+
+		/**
+		 * Runs the command without waking its caller, see complete()
+		 */
+		void execute() {
+			try {
+				result = command.execute();
+			}
+			catch(Throwable t) {
+				failure = t; // Handed to the caller, as run() would
+			}
+		}
+
+		/**
+		 * Wakes the caller with what execute() returned or threw
+		 */
+		void complete() {
+			if(failure != null) {
+				setException( failure );
+			}
+			else {
+				set( result );
+			}
+		}
+	}
+}
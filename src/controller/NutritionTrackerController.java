@@ -1,9 +1,8 @@
 package controller;
 
-import model.exercise.Exercise;
 import model.exercise.ExerciseCollection;
 import model.food.FoodCollection;
-import model.food.IFood;
+import model.log.DayLog;
 import model.log.LogCollection;
 
 import java.util.*;
@@ -17,13 +16,9 @@ public class NutritionTrackerController {
 	private static String DEFAULT_WEIGHT_STRING = "150.0";
 	private static String DEFAULT_CALORIES_STRING = "2000.0";
 
-	private FoodController fController;
-	private ExerciseController eController;
 	private LogController lController;
 
 	public NutritionTrackerController(FoodCollection f, LogCollection l, ExerciseCollection e) {
-		this.fController = new FoodController( f );
-		this.eController = new ExerciseController( e );
 		this.lController = new LogController( f, l, e );
 	}
 
@@ -58,6 +53,16 @@ public class NutritionTrackerController {
 		}
 	}
 
+	/**
+	 * Gets everything logged for the day as one unchanging version, so values read from it fit together
+	 *
+	 * @param date
+	 * @return DayLog or null if nothing was logged
+	 */
+	public DayLog getDayLog(String date) {
+		return lController.getDayLog( date );
+	}
+
 	/**
 	 * Calculates all calories and nutrients for the given date
 	 *
@@ -65,38 +70,31 @@ public class NutritionTrackerController {
 	 * @return ArrayList of calculated totals in format: [calories, fats, carbs, proteins]
 	 */
 	public ArrayList<Double> calculateTotalConsumedNutrients( String date ) {
-		double calories = 0.0;
-		double fats = 0.0;
-		double carbs = 0.0;
-		double proteins = 0.0;
-
-		// Get list of foods
-		List<String> foods = lController.getFoodData( date );
-
-		// Calculate all nutrient values
-		if(foods != null) {
-
-			for(int i=0; i<foods.size()-1; i+=2) {
-				IFood target = fController.getFoodByName(foods.get(i));
-
-				// Get serving
-				double serving =  Double.parseDouble( foods.get(i+1) );
-
-				if(target != null) {
-					calories += target.getCalories() * serving;
-					fats += target.getFat() * serving;
-					carbs += target.getCarb() * serving;
-					proteins += target.getProtein() * serving;
-				}
-			}
-		}
+		return toList( lController.getConsumedTotals(date) );
+	}
 
+	/**
+	 * Calculates all calories and nutrients for a day, see LogController.getLogsBetween()
+	 *
+	 * @param day the logs of the day, may be null
+	 * @return ArrayList of calculated totals in format: [calories, fats, carbs, proteins]
+	 */
+	public ArrayList<Double> calculateTotalConsumedNutrients( DayLog day ) {
+		return toList( lController.getConsumedTotals(day) );
+	}
+
+	/**
+	 * Copies the running totals kept by the LogCollection into the list format used by the views
+	 *
+	 * @param totals [calories, fats, carbs, proteins]
+	 * @return ArrayList of totals
+	 */
+	private ArrayList<Double> toList( double[] totals ) {
 		// Setup return array and return
 		ArrayList<Double> nutrientValues = new ArrayList<>();
-		nutrientValues.add(calories);
-		nutrientValues.add(fats);
-		nutrientValues.add(carbs);
-		nutrientValues.add(proteins);
+		for(double total : totals) {
+			nutrientValues.add(total);
+		}
 
 		return nutrientValues;
 	}
@@ -105,36 +103,20 @@ public class NutritionTrackerController {
 	 * Calculates all calories and nutrients for the given date
 	 *
 	 * @param date the date for which to calculate totals
-	 * @return ArrayList of calculated totals in format: [total consumed calories, total burned calories, net calories]
+	 * @return total burned calories
 	 */
 	public Double calculateBurnedCalories( String date ) {
+		return lController.getBurnedCalories( date );
+	}
 
-		Double totalBurnedCalories = 0.0;
-		Double userWeight = 150.0;
-		if(this.lController.getWeightByDay(date) != null){
-			userWeight = this.lController.getWeightByDay(date);
-		}
-
-		// Get list of foods
-		List<String> exercises = lController.getExerciseData( date );
-
-		// Calculate all nutrient values
-		if(exercises != null) {
-
-			for(int i=0; i < exercises.size()-1; i+=2) {
-				// Get exercise object
-				Exercise target = eController.getExercise(exercises.get(i));
-
-				// Get duration
-				double duration =  Double.parseDouble( exercises.get(i+1) );
-
-				if(target != null) {
-					totalBurnedCalories += target.calculateCalories(userWeight, duration);
-				}
-			}
-		}
-
-		return totalBurnedCalories;
+	/**
+	 * Calculates the calories burned on a day, see LogController.getLogsBetween()
+	 *
+	 * @param day the logs of the day, may be null
+	 * @return total burned calories
+	 */
+	public Double calculateBurnedCalories( DayLog day ) {
+		return lController.getBurnedCalories( day );
 	}
 
 	/**
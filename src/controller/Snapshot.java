@@ -0,0 +1,516 @@
+package controller;
+
+import model.exercise.Exercise;
+import model.exercise.ExerciseCollection;
+import model.food.*;
+import model.log.DayLog;
+import model.log.LogCollection;
+import model.log.LogSnapshot;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+/**
+ * Reads and writes a binary snapshot of all three models, which loads much faster than parsing the csv files.
+ *
+ * Layout (version 4), all values written through DataOutputStream:
+ *   int magic, short version
+ *   per csv file (food, exercise, log): long length and long last modified time of the csv file, and long position,
+ *       the length its journal had when the snapshot was taken
+ *   int name count, followed by every name as UTF
+ *   int food count, then per food: byte 'b' with key, name and 4 doubles, or byte 'r' with key, name,
+ *       ingredient count and (ingredient name, servings) pairs. Recipes come after their ingredients.
+ *   int exercise count, then per exercise: key, name, calories per hour
+ *   int day count, then in date order per day: long epoch day, weight, calorie limit (NaN when not logged),
+ *       food count with (name, servings) pairs and exercise count with (name, duration) pairs
+ *   long CRC32 of everything before it
+ * Names are written as indexes into the name table.
+ *
+ * A snapshot holds the csv files it was written from plus exactly the journal records before each position, so on
+ * load the records appended after the positions are replayed on top of it. Once a csv file changes, ie.) a journal was
+ * folded into it, the snapshot no longer matches and the csv files are read instead.
+ *
+ * @author Team A
+ */
+public class Snapshot {
+	private static final int MAGIC = 0x44494554; // "DIET"
+	private static final short VERSION = 4;
+
+	private static final String[] CSV_FILES = { IOHandler.FOOD_CSV, IOHandler.EXERCISE_CSV, IOHandler.LOG_CSV };
+	private static final String[] JOURNALS = { IOHandler.FOOD_JOURNAL, IOHandler.EXERCISE_JOURNAL, IOHandler.LOG_JOURNAL };
+
+	private FoodCollection fCollection;
+	private ExerciseCollection eCollection;
+	private LogCollection lCollection;
+	private FoodFactory fFactory;
+
+	private long[] positions = new long[JOURNALS.length]; // Journal positions of the snapshot last read
+
+	public Snapshot(FoodCollection f, ExerciseCollection e, LogCollection l) {
+		this.fCollection = f;
+		this.eCollection = e;
+		this.lCollection = l;
+		this.fFactory = new FoodFactory();
+	}
+
+	/**
+	 * Returns how much of a journal the snapshot last read holds, the records after it still have to be replayed
+	 *
+	 * @param journal one of the journals of IOHandler
+	 * @return position in bytes
+	 */
+	public long getJournalPosition(String journal) {
+		for(int i=0; i<JOURNALS.length; i++) {
+			if(JOURNALS[i].equals( journal )) {
+				return positions[i];
+			}
+		}
+
+		throw new IllegalArgumentException( "Not a journal: " + journal );
+	}
+
+	/**
+	 * Writes the snapshot to a temp file and renames it over the old one
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	public void write(String file) throws IOException {
+		// Take the logs and the journal positions together on the ModelWriter thread, between two commands, so the
+		// logs hold exactly the records before the positions. Foods and exercises are read afterwards and can also
+		// hold later changes, replaying those again on load sets the same values.
+		final long[] journals = new long[JOURNALS.length];
+		final LogSnapshot[] taken = new LogSnapshot[1];
+
+		ModelWriter.getInstance().execute(new ModelWriter.Command() {
+			@Override
+			public String execute() {
+				for(int i=0; i<JOURNALS.length; i++) {
+					journals[i] = new File( JOURNALS[i] ).length();
+				}
+				taken[0] = lCollection.publishSnapshot();
+				return "";
+			}
+		});
+
+		Map<String, Integer> names = new LinkedHashMap<>();
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream( body );
+
+		// Foods, with each recipe after its ingredients
+		double[] nutrients = new double[IFood.NUTRIENT_COUNT];
+		List<IFood> foods = new ArrayList<>();
+		Set<IFood> visited = Collections.newSetFromMap( new IdentityHashMap<IFood, Boolean>() );
+		Map<IFood, String> keys = new IdentityHashMap<>();
+
+		for(Map.Entry<String, IFood> entry : fCollection.getCollection().entrySet()) {
+			keys.put( entry.getValue(), entry.getKey() );
+		}
+		for(IFood f : fCollection.getCollection().values()) {
+			orderFood( f, keys, visited, foods );
+		}
+
+		out.writeInt( foods.size() );
+		for(IFood f : foods) {
+			if(f instanceof Recipe) {
+				Map<IFood, Double> ingredients = ((Recipe) f).getIngredients();
+
+				out.writeByte( 'r' );
+				out.writeInt( index(names, keys.get(f)) );
+				out.writeInt( index(names, f.getName()) );
+				out.writeInt( ingredients.size() );
+
+				for(Map.Entry<IFood, Double> i : ingredients.entrySet()) {
+					out.writeInt( index(names, i.getKey().getName()) );
+					out.writeDouble( i.getValue() );
+				}
+			}
+			else {
+				out.writeByte( 'b' );
+				out.writeInt( index(names, keys.get(f)) );
+				out.writeInt( index(names, f.getName()) );
+				for(double n : f.getNutrients( nutrients )) {
+					out.writeDouble( n );
+				}
+			}
+		}
+
+		// Exercises
+		List<Exercise> exercises = eCollection.getAllExercises();
+		out.writeInt( exercises.size() );
+		for(Exercise e : exercises) {
+			out.writeInt( index(names, e.getName().toLowerCase()) );
+			out.writeInt( index(names, e.getName()) );
+			out.writeDouble( e.getCaloriesPerHour() );
+		}
+
+		// Logs, one block per day, as they were at the journal positions
+		LogSnapshot logs = taken[0];
+		out.writeInt( logs.getDayCount() );
+		for(int d=0; d<logs.getDayCount(); d++) {
+			DayLog day = logs.getDayAt( d );
+
+			out.writeLong( logs.getEpochDay(d) );
+			out.writeDouble( day.getWeight() );
+			out.writeDouble( day.getCalorieLimit() );
+
+			out.writeInt( day.getFoodCount() );
+			for(int i=0; i<day.getFoodCount(); i++) {
+				out.writeInt( index(names, day.getFoodName(i)) );
+				out.writeDouble( day.getFoodServings(i) );
+			}
+
+			out.writeInt( day.getExerciseCount() );
+			for(int i=0; i<day.getExerciseCount(); i++) {
+				out.writeInt( index(names, day.getExerciseName(i)) );
+				out.writeDouble( day.getExerciseDuration(i) );
+			}
+		}
+
+		out.flush();
+
+		// Header and name table go in front of the body
+		String temp = file + ".tmp";
+		CheckedOutputStream checked = new CheckedOutputStream( new FileOutputStream( temp ), new CRC32() );
+		try(DataOutputStream fileOut = new DataOutputStream( new BufferedOutputStream( checked ) )) {
+			fileOut.writeInt( MAGIC );
+			fileOut.writeShort( VERSION );
+			for(int i=0; i<CSV_FILES.length; i++) {
+				File csv = new File( CSV_FILES[i] );
+				fileOut.writeLong( csv.length() );
+				fileOut.writeLong( csv.lastModified() );
+				fileOut.writeLong( journals[i] );
+			}
+			fileOut.writeInt( names.size() );
+			for(String name : names.keySet()) {
+				fileOut.writeUTF( name );
+			}
+			body.writeTo( fileOut );
+			fileOut.flush();
+			fileOut.writeLong( checked.getChecksum().getValue() );
+		}
+
+		Journal.force( temp );
+		Journal.move( temp, file );
+	}
+
+	/**
+	 * Adds a food and, first, any of its ingredients that are in the collection to the list
+	 *
+	 * @param f
+	 * @param keys
+	 * @param visited
+	 * @param foods
+	 */
+	private void orderFood(IFood f, Map<IFood, String> keys, Set<IFood> visited, List<IFood> foods) {
+		if(!keys.containsKey(f) || !visited.add(f)) {
+			return;
+		}
+
+		if(f instanceof Recipe) {
+			for(IFood i : ((Recipe) f).getIngredients().keySet()) {
+				orderFood( i, keys, visited, foods );
+			}
+		}
+
+		foods.add( f );
+	}
+
+	/**
+	 * Returns the index of a name in the name table, adding it if needed
+	 *
+	 * @param names
+	 * @param name
+	 * @return int
+	 */
+	private int index(Map<String, Integer> names, String name) {
+		Integer i = names.get( name );
+
+		if(i == null) {
+			i = names.size();
+			names.put( name, i );
+		}
+
+		return i;
+	}
+
+	/**
+	 * Loads the snapshot into the models, see getJournalPosition() for the journal records to replay afterwards.
+	 *
+	 * The whole file is decoded and its checksum compared before anything is added to the models, so a snapshot that
+	 * is cut short or damaged leaves them empty and the csv files can be read instead.
+	 *
+	 * @param file
+	 * @return false if there is no snapshot of this version, it was written from other csv files or journals, or it
+	 *         is damaged, nothing is loaded in that case
+	 * @throws IOException
+	 */
+	public boolean read(String file) throws IOException {
+		if(!new File( file ).exists()) {
+			return false;
+		}
+
+		Contents contents = new Contents();
+
+		try(DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( file ), 64 * 1024 ) )) {
+			if(in.readInt() != MAGIC || in.readShort() != VERSION) {
+				return false;
+			}
+
+			for(int i=0; i<CSV_FILES.length; i++) {
+				File csv = new File( CSV_FILES[i] );
+				long length = in.readLong();
+				long modified = in.readLong();
+				positions[i] = in.readLong();
+
+				// A journal shorter than the position was folded or emptied, which also changes the csv file
+				if(csv.length() != length || csv.lastModified() != modified || new File( JOURNALS[i] ).length() < positions[i]) {
+					return false;
+				}
+			}
+
+			checkChecksum( file );
+			contents.decode( in, new File( file ).length() );
+
+			in.readLong(); // Checksum
+			if(in.read() != -1) {
+				throw new IOException( "Data after the checksum" );
+			}
+		}
+		catch(IOException | RuntimeException e) {
+			// ie.) EOFException when the file was cut short, or a name index out of range
+			System.err.println( String.format("%s is damaged and was not loaded: %s", file, e) );
+			return false;
+		}
+
+		contents.addTo( fCollection, eCollection, lCollection, fFactory );
+		return true;
+	}
+
+	/**
+	 * Compares the checksum at the end of a snapshot with the rest of the file, in blocks instead of value by value
+	 *
+	 * @param file
+	 * @throws IOException when they differ
+	 */
+	private void checkChecksum(String file) throws IOException {
+		try(RandomAccessFile raf = new RandomAccessFile( file, "r" )) {
+			long length = raf.length() - 8;
+			if(length < 0) {
+				throw new EOFException();
+			}
+
+			CRC32 crc = new CRC32();
+			byte[] block = new byte[64 * 1024];
+
+			for(long pos=0; pos<length; ) {
+				int read = raf.read( block, 0, (int) Math.min(block.length, length - pos) );
+				if(read < 0) {
+					throw new EOFException();
+				}
+
+				crc.update( block, 0, read );
+				pos += read;
+			}
+
+			if(raf.readLong() != crc.getValue()) {
+				throw new IOException( "Checksum does not match" );
+			}
+		}
+	}
+
+	/**
+	 * Everything a snapshot holds, decoded into arrays before any of it goes into the models
+	 */
+	private static class Contents {
+		private String[] names;
+
+		// Foods, in file order; values are the 4 nutrients of a basic food or the servings of a recipe's ingredients
+		private byte[] foodTypes;
+		private int[] foodKeys;
+		private int[] foodNames;
+		private int[][] ingredients;
+		private double[][] foodValues;
+
+		private int[] exerciseKeys;
+		private int[] exerciseNames;
+		private double[] caloriesPerHour;
+
+		// Days, in date order, with their entries as name ids and amounts
+		private long[] dates;
+		private double[] weights;
+		private double[] calorieLimits;
+		private int[][] dayFoods;
+		private double[][] dayServings;
+		private int[][] dayExercises;
+		private double[][] dayDurations;
+
+		/**
+		 * Reads the name table and the body, checking every count and name index
+		 *
+		 * @param in positioned after the header
+		 * @param limit size of the file, no count can be larger
+		 * @throws IOException when the file is cut short or a count or index is out of range
+		 */
+		void decode(DataInputStream in, long limit) throws IOException {
+			names = new String[ count(in, limit) ];
+			for(int i=0; i<names.length; i++) {
+				names[i] = in.readUTF();
+			}
+
+			// Foods
+			int foodCount = count( in, limit );
+			foodTypes = new byte[foodCount];
+			foodKeys = new int[foodCount];
+			foodNames = new int[foodCount];
+			ingredients = new int[foodCount][];
+			foodValues = new double[foodCount][];
+
+			for(int i=0; i<foodCount; i++) {
+				foodTypes[i] = in.readByte();
+				foodKeys[i] = name( in );
+				foodNames[i] = name( in );
+
+				if(foodTypes[i] == 'r') {
+					int ingredientCount = count( in, limit );
+					ingredients[i] = new int[ingredientCount];
+					foodValues[i] = new double[ingredientCount];
+
+					for(int j=0; j<ingredientCount; j++) {
+						ingredients[i][j] = name( in );
+						foodValues[i][j] = in.readDouble();
+					}
+				}
+				else if(foodTypes[i] == 'b') {
+					foodValues[i] = new double[] { in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble() };
+				}
+				else {
+					throw new IOException( "Unknown food type " + foodTypes[i] );
+				}
+			}
+
+			// Exercises
+			int exerciseCount = count( in, limit );
+			exerciseKeys = new int[exerciseCount];
+			exerciseNames = new int[exerciseCount];
+			caloriesPerHour = new double[exerciseCount];
+
+			for(int i=0; i<exerciseCount; i++) {
+				exerciseKeys[i] = name( in );
+				exerciseNames[i] = name( in );
+				caloriesPerHour[i] = in.readDouble();
+			}
+
+			// Logs
+			int dayCount = count( in, limit );
+			dates = new long[dayCount];
+			weights = new double[dayCount];
+			calorieLimits = new double[dayCount];
+			dayFoods = new int[dayCount][];
+			dayServings = new double[dayCount][];
+			dayExercises = new int[dayCount][];
+			dayDurations = new double[dayCount][];
+
+			for(int i=0; i<dayCount; i++) {
+				dates[i] = in.readLong();
+				weights[i] = in.readDouble();
+				calorieLimits[i] = in.readDouble();
+
+				int foods = count( in, limit );
+				dayFoods[i] = new int[foods];
+				dayServings[i] = new double[foods];
+				for(int j=0; j<foods; j++) {
+					dayFoods[i][j] = name( in );
+					dayServings[i][j] = in.readDouble();
+				}
+
+				int exercises = count( in, limit );
+				dayExercises[i] = new int[exercises];
+				dayDurations[i] = new double[exercises];
+				for(int j=0; j<exercises; j++) {
+					dayExercises[i][j] = name( in );
+					dayDurations[i][j] = in.readDouble();
+				}
+			}
+		}
+
+		/**
+		 * Reads a count, which a damaged file could turn into a huge allocation
+		 */
+		private int count(DataInputStream in, long limit) throws IOException {
+			int count = in.readInt();
+
+			if(count < 0 || count > limit) {
+				throw new IOException( "Count out of range: " + count );
+			}
+
+			return count;
+		}
+
+		/**
+		 * Reads an index into the name table
+		 */
+		private int name(DataInputStream in) throws IOException {
+			int index = in.readInt();
+
+			if(index < 0 || index >= names.length) {
+				throw new IOException( "Name index out of range: " + index );
+			}
+
+			return index;
+		}
+
+		/**
+		 * Adds everything to the models, recipes after their ingredients as they were written
+		 */
+		void addTo(FoodCollection fCollection, ExerciseCollection eCollection, LogCollection lCollection, FoodFactory fFactory) {
+			// Foods
+			for(int i=0; i<foodTypes.length; i++) {
+				String key = names[ foodKeys[i] ];
+				String name = names[ foodNames[i] ];
+				double[] values = foodValues[i];
+
+				if(foodTypes[i] == 'r') {
+					Map<IFood, Double> ingredientsByServing = new HashMap<>();
+
+					for(int j=0; j<values.length; j++) {
+						IFood ingredient = fCollection.getFood( names[ ingredients[i][j] ].toLowerCase() );
+
+						if(ingredient != null) {
+							ingredientsByServing.put( ingredient, values[j] );
+						}
+					}
+
+					fCollection.addFood( key, fFactory.createRecipe( name, ingredientsByServing ) );
+				}
+				else {
+					fCollection.addFood( key, new BasicFood( name, values[0], values[1], values[2], values[3] ) );
+				}
+			}
+
+			// Exercises
+			for(int i=0; i<exerciseKeys.length; i++) {
+				eCollection.addExercise( names[ exerciseKeys[i] ], new Exercise( names[ exerciseNames[i] ], caloriesPerHour[i] ) );
+			}
+
+			// Logs
+			for(int i=0; i<dates.length; i++) {
+				if(!Double.isNaN(weights[i])) {
+					lCollection.addWeightLog( dates[i], weights[i] );
+				}
+				if(!Double.isNaN(calorieLimits[i])) {
+					lCollection.addCalorieLimit( dates[i], calorieLimits[i] );
+				}
+
+				for(int j=0; j<dayFoods[i].length; j++) {
+					lCollection.addFoodLog( dates[i], names[ dayFoods[i][j] ], dayServings[i][j] );
+				}
+
+				for(int j=0; j<dayExercises[i].length; j++) {
+					lCollection.addExerciseLog( dates[i], names[ dayExercises[i][j] ], dayDurations[i][j] );
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * Describes a single change to one of the collections, it is passed to their observers so they can skip changes that
+ * do not affect them, ie.) a panel showing one day can ignore foods logged on other days
+ *
+ * @author Team A
+ */
+public class ChangeEvent {
+	public static final long NO_DATE = Long.MIN_VALUE;
+
+	/**
+	 * What was changed
+	 */
+	public enum Entity {
+		FOOD, // A food or recipe in FoodCollection
+		EXERCISE, // An exercise in ExerciseCollection
+		FOOD_LOG, // A logged food in LogCollection
+		EXERCISE_LOG, // A logged exercise in LogCollection
+		WEIGHT, // The weight logged for a day
+		CALORIE_LIMIT, // The calorie limit logged for a day
+		LOG // Anything in LogCollection, only used for BULK events
+	}
+
+	/**
+	 * How it was changed
+	 */
+	public enum Kind {
+		ADDED,
+		REPLACED,
+		REMOVED,
+		BULK // Any number of changes made between ObservableCollection.beginBulk() and endBulk()
+	}
+
+	private Entity entity;
+	private Kind kind;
+	private String key; // Name of the food or exercise, null for weights and calorie limits
+	private long epochDay; // Day of a log change, NO_DATE for changes to foods and exercises
+
+	public ChangeEvent(Entity entity, Kind kind, String key) {
+		this( entity, kind, key, NO_DATE );
+	}
+
+	public ChangeEvent(Entity entity, Kind kind, String key, long epochDay) {
+		this.entity = entity;
+		this.kind = kind;
+		this.key = key;
+		this.epochDay = epochDay;
+	}
+
+	public Entity getEntity() {
+		return entity;
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public long getEpochDay() {
+		return epochDay;
+	}
+
+	/**
+	 * Returns the day of a log change
+	 *
+	 * @return date in yyyy-mm-dd format or null if the change is not to a log
+	 */
+	public String getDate() {
+		return epochDay == NO_DATE ? null : LocalDate.ofEpochDay( epochDay ).toString();
+	}
+
+	/**
+	 * Checks if the change can affect what is shown for a date, changes without a date affect every date
+	 *
+	 * @param date date in yyyy-mm-dd format
+	 * @return boolean
+	 */
+	public boolean affects(String date) {
+		return epochDay == NO_DATE || getDate().equals( date );
+	}
+
+	@Override
+	public String toString() {
+		return kind + " " + entity + (key == null ? "" : " " + key) + (epochDay == NO_DATE ? "" : " on " + getDate());
+	}
+}
@@ -0,0 +1,72 @@
+package model;
+
+import java.util.Observable;
+
+/**
+ * A collection that passes a ChangeEvent to its observers for every change.
+ *
+ * Between beginBulk() and endBulk() the events are held back and the observers get a single BULK event at the end
+ * instead, ie.) while IOHandler loads the csv files. Bulk scopes can be nested, only the outermost one notifies.
+ *
+ * @author Team A
+ */
+public abstract class ObservableCollection extends Observable {
+	private ChangeEvent.Entity entity; // Entity of the summary event
+	private int bulkDepth;
+	private boolean bulkChanged; // Something changed since the outermost beginBulk()
+
+	protected ObservableCollection(ChangeEvent.Entity entity) {
+		this.entity = entity;
+	}
+
+	/**
+	 * Holds back notifications until the matching endBulk()
+	 */
+	public synchronized void beginBulk() {
+		bulkDepth++;
+	}
+
+	/**
+	 * Checks if a bulk scope is open
+	 *
+	 * @return boolean
+	 */
+	protected synchronized boolean isBulk() {
+		return bulkDepth > 0;
+	}
+
+	/**
+	 * Ends a bulk scope, when it is the outermost one and something changed the observers get one BULK event
+	 */
+	public void endBulk() {
+		synchronized(this) {
+			if(bulkDepth == 0 || --bulkDepth > 0 || !bulkChanged) {
+				return;
+			}
+
+			bulkChanged = false;
+		}
+
+		this.setChanged();
+		this.notifyObservers( new ChangeEvent( entity, ChangeEvent.Kind.BULK, null ) );
+		this.clearChanged();
+	}
+
+	/**
+	 * Notifies the observers of a change, or remembers it for endBulk()
+	 *
+	 * @param event
+	 */
+	protected void fireChange(ChangeEvent event) {
+		synchronized(this) {
+			if(bulkDepth > 0) {
+				bulkChanged = true;
+				return;
+			}
+		}
+
+		this.setChanged();
+		this.notifyObservers( event );
+		this.clearChanged();
+	}
+}
@@ -6,8 +6,8 @@ package model.exercise;
  * @author Team A
  */
 public class Exercise {
-    private String name;
-    private double caloriesPerHour;
+    private final String name;
+    private final double caloriesPerHour;
 
     public Exercise(String name, double caloriesPerHour) {
         this.name = name;
@@ -1,31 +1,82 @@
 package model.exercise;
 
+import model.ChangeEvent;
+import model.ObservableCollection;
+import model.search.NameIndex;
+import model.search.TrigramIndex;
+
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Stores Exercises in a collective hash map
  *
+ * Exercises can be added and read from any thread, the map is concurrent and the name indexes lock themselves.
+ *
  * @author Team A
  */
-public class ExerciseCollection extends Observable {
+public class ExerciseCollection extends ObservableCollection {
     private Map<String, Exercise> exercises;
+    private AtomicInteger version = new AtomicInteger(); // Incremented on every change
+    private NameIndex names; // Keys of exercises in alphabetical order
+    private TrigramIndex similarNames; // Keys of exercises by the groups of letters they contain, for mistyped names
 
     public ExerciseCollection() {
-        this.exercises = new HashMap<>()    ;
+        super(ChangeEvent.Entity.EXERCISE);
+        this.exercises = new ConcurrentHashMap<>();
+        this.names = new NameIndex();
+        this.similarNames = new TrigramIndex();
     }
 
     /**
-     * Adds an exercise
+     * Adds an exercise, observers are passed a ChangeEvent with the name of the exercise
      *
      * @param name
      * @param exercise
      */
     public void addExercise(String name, Exercise exercise){
-        exercises.put(name, exercise);
+        ChangeEvent.Kind kind = ChangeEvent.Kind.REPLACED;
+        if(exercises.put(name, exercise) == null) {
+            names.add(name);
+            similarNames.add(name);
+            kind = ChangeEvent.Kind.ADDED;
+        }
+        version.incrementAndGet();
+
+        this.fireChange(new ChangeEvent(ChangeEvent.Entity.EXERCISE, kind, name));
+    }
+
+    /**
+     * Finds the names of the exercises that start with a prefix, ignoring case
+     *
+     * @param prefix ie.) "run" for "Running"
+     * @param limit the most names to return
+     * @return List of keys in alphabetical order
+     */
+    public List<String> searchExercises(String prefix, int limit) {
+        return names.search(prefix, limit);
+    }
 
-        this.setChanged();
-        this.notifyObservers();
-        this.clearChanged();
+    /**
+     * Finds the names of the exercises that are spelled most like a name, ie.) for a mistyped name
+     *
+     * @param name
+     * @param limit the most names to return
+     * @return List of keys, most similar first
+     */
+    public List<String> searchSimilarExercises(String name, int limit) {
+        return similarNames.search(name, limit);
+    }
+
+    /**
+     * Returns a number that changes whenever an exercise is added or replaced, so values calculated from exercises
+     * can tell if they are out of date
+     *
+     * @return version
+     */
+    public int getVersion() {
+        return version.get();
     }
 
     /**
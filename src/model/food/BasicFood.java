@@ -6,11 +6,11 @@ package model.food;
  * @author Team A
  */
 public class BasicFood implements IFood {
-	private String name;
-	private double calories;
-	private double fat;
-	private double carb;
-	private double protein;
+	private final String name;
+	private final double calories;
+	private final double fat;
+	private final double carb;
+	private final double protein;
 
 	public BasicFood(String name, double calories, double fat, double carb, double protein) {
 		this.name = name;
@@ -44,4 +44,14 @@ public class BasicFood implements IFood {
 	public double getProtein() {
 		return protein;
 	}
+
+	@Override
+	public double[] getNutrients(double[] nutrients) {
+		nutrients[CALORIES] = calories;
+		nutrients[FAT] = fat;
+		nutrients[CARB] = carb;
+		nutrients[PROTEIN] = protein;
+
+		return nutrients;
+	}
 }
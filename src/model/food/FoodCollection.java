@@ -1,33 +1,176 @@
 package model.food;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Observable;
+import model.ChangeEvent;
+import model.ObservableCollection;
+import model.search.NameIndex;
+import model.search.TrigramIndex;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Stores food objects in a Hash Map depending on the type of food with the Key as the food's name and Value as the object
  *
+ * Recipes cache their nutrients, so the collection also keeps the recipes that use each food. When a food is replaced,
+ * the recipes that used it switch to the new food and they and every recipe containing them drop their cache.
+ *
+ * Foods can be read from any thread without locking. Adding a food takes the collection's own lock, so the recipe
+ * bookkeeping of two additions does not interleave, and observers are notified after the lock is released.
+ *
  * @author Team A
  */
-public class FoodCollection extends Observable {
+public class FoodCollection extends ObservableCollection {
 	private Map<String, IFood> foods; // ie.) "Hot Dog" -> HotDogObject
+	private volatile int version; // Incremented on every change, after the recipes using the food were updated
+	private final Object lock = new Object(); // Held while adding a food
+	private Map<IFood, List<Recipe>> dependents; // ie.) HotDogObject -> [ FullHotDogObject ], compared by identity
+	private NameIndex names; // Keys of foods in alphabetical order
+	private TrigramIndex similarNames; // Keys of foods by the groups of letters they contain, for mistyped names
 
 	public FoodCollection() {
-		this.foods = new HashMap<>();
+		super( ChangeEvent.Entity.FOOD );
+		this.foods = new ConcurrentHashMap<>();
+		this.dependents = new IdentityHashMap<>();
+		this.names = new NameIndex();
+		this.similarNames = new TrigramIndex();
 	}
 
 	/**
-	 * Adds a food to hash map
+	 * Adds a food to hash map, observers are passed a ChangeEvent with the name of the food
 	 *
 	 * @param name name of the food
 	 * @param food food object
 	 */
 	public void addFood(String name, IFood food) {
-		foods.put( name, food );
+		IFood old;
+
+		synchronized(lock) {
+			old = foods.put( name, food );
+
+			if(old == null) {
+				names.add( name );
+				similarNames.add( name );
+			}
+
+			// Register the new recipe with its ingredients
+			if(food instanceof Recipe) {
+				for(IFood ingredient : ((Recipe) food).getIngredients().keySet()) {
+					addDependent( ingredient, (Recipe) food );
+				}
+			}
+
+			// Point the recipes that used the replaced food at the new one
+			if(old != null && old != food) {
+				replace( old, food );
+			}
 
-		this.setChanged();
-		this.notifyObservers();
-		this.clearChanged();
+			version++;
+		}
+
+		this.fireChange( new ChangeEvent( ChangeEvent.Entity.FOOD, old == null ? ChangeEvent.Kind.ADDED : ChangeEvent.Kind.REPLACED, name ) );
+	}
+
+	/**
+	 * Records that a recipe uses a food
+	 *
+	 * @param ingredient
+	 * @param recipe
+	 */
+	private void addDependent(IFood ingredient, Recipe recipe) {
+		List<Recipe> recipes = dependents.get( ingredient );
+
+		if(recipes == null) {
+			recipes = new ArrayList<>();
+			dependents.put( ingredient, recipes );
+		}
+
+		if(!recipes.contains(recipe)) {
+			recipes.add( recipe );
+		}
+	}
+
+	/**
+	 * Moves the recipes that use a replaced food over to its replacement and drops their cached nutrients
+	 *
+	 * @param old the replaced food
+	 * @param food the new food
+	 */
+	private void replace(IFood old, IFood food) {
+		List<Recipe> recipes = dependents.remove( old );
+		List<Recipe> kept = new ArrayList<>();
+
+		for(Recipe recipe : recipes == null ? Collections.<Recipe>emptyList() : recipes) {
+			// A recipe the new food is made from keeps the old food, otherwise it would contain itself
+			if(recipe == food || contains(food, recipe)) {
+				kept.add( recipe );
+				continue;
+			}
+
+			recipe.replaceIngredient( old, food );
+			addDependent( food, recipe );
+			invalidate( recipe, Collections.newSetFromMap( new IdentityHashMap<Recipe, Boolean>() ) );
+		}
+
+		if(!kept.isEmpty()) {
+			dependents.put( old, kept );
+		}
+		else if(old instanceof Recipe) {
+			// Nothing uses the old recipe anymore, so its ingredients no longer need to know about it
+			for(IFood ingredient : ((Recipe) old).getIngredients().keySet()) {
+				List<Recipe> users = dependents.get( ingredient );
+
+				if(users != null) {
+					users.remove( old );
+					if(users.isEmpty()) {
+						dependents.remove( ingredient );
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drops the cached nutrients of a recipe and of every recipe that contains it
+	 *
+	 * @param recipe
+	 * @param visited recipes already invalidated
+	 */
+	private void invalidate(Recipe recipe, Set<Recipe> visited) {
+		if(!visited.add(recipe)) {
+			return;
+		}
+
+		recipe.invalidate();
+
+		List<Recipe> recipes = dependents.get( recipe );
+		if(recipes != null) {
+			for(Recipe r : recipes) {
+				invalidate( r, visited );
+			}
+		}
+	}
+
+	/**
+	 * Checks if a food is, or is made from, another food
+	 *
+	 * @param food
+	 * @param target
+	 * @return boolean
+	 */
+	private boolean contains(IFood food, IFood target) {
+		if(food == target) {
+			return true;
+		}
+
+		if(food instanceof Recipe) {
+			for(IFood ingredient : ((Recipe) food).getIngredients().keySet()) {
+				if(contains(ingredient, target)) {
+					return true;
+				}
+			}
+		}
+
+		return false;
 	}
 
 	/**
@@ -40,6 +183,38 @@ public class FoodCollection extends Observable {
 		return foods.get( name );
 	}
 
+	/**
+	 * Finds the names of the foods that start with a prefix, ignoring case
+	 *
+	 * @param prefix ie.) "hot" for "Hot Dog"
+	 * @param limit the most names to return
+	 * @return List of keys in alphabetical order
+	 */
+	public List<String> searchFoods(String prefix, int limit) {
+		return names.search( prefix, limit );
+	}
+
+	/**
+	 * Finds the names of the foods that are spelled most like a name, ie.) for a mistyped name
+	 *
+	 * @param name
+	 * @param limit the most names to return
+	 * @return List of keys, most similar first
+	 */
+	public List<String> searchSimilarFoods(String name, int limit) {
+		return similarNames.search( name, limit );
+	}
+
+	/**
+	 * Returns a number that changes whenever a food is added or replaced, so values calculated from foods can tell
+	 * if they are out of date
+	 *
+	 * @return version
+	 */
+	public int getVersion() {
+		return version;
+	}
+
 	/**
 	 * Gets foods hash map
 	 *
@@ -27,7 +27,7 @@ public class FoodFactory {
 		}
 		// Recipe
 		else if(values[0].equals("r")) {
-			return new Recipe(values[1], ingredientsByServing);
+			return createRecipe(values[1], ingredientsByServing);
 		}
 
 		return null;
@@ -44,23 +44,40 @@ public class FoodFactory {
 	 * @return
 	 */
 	public IFood createBasicFood(String name, String c , String f, String cb, String p) {
+		return createBasicFood( name, Double.parseDouble( c ), Double.parseDouble( f ), Double.parseDouble( cb ), Double.parseDouble( p ) );
+	}
+
+	/**
+	 * Creates a BasicFood from already parsed values
+	 *
+	 * @param name
+	 * @param c calories
+	 * @param f fat
+	 * @param cb carb
+	 * @param p protein
+	 * @return
+	 */
+	public IFood createBasicFood(String name, double c , double f, double cb, double p) {
 		// Get nutritional values in #.# format
-		double calories = Math.round(Double.parseDouble( c ) * 10.0) / 10.0;
-		double fat = Math.round(Double.parseDouble( f ) * 10.0) / 10.0;
-		double carb = Math.round(Double.parseDouble( cb ) * 10.0) / 10.0;
-		double protein = Math.round(Double.parseDouble( p ) * 10.0) / 10.0;
+		double calories = Math.round(c * 10.0) / 10.0;
+		double fat = Math.round(f * 10.0) / 10.0;
+		double carb = Math.round(cb * 10.0) / 10.0;
+		double protein = Math.round(p * 10.0) / 10.0;
 
 		return new BasicFood(name, calories, fat, carb, protein);
 	}
 
 	/**
-	 * Creates a Recipe
+	 * Creates a Recipe and compiles it into the basic foods it is made of, see Recipe.compile()
 	 *
 	 * @param name
 	 * @param ingredientsByServings
 	 * @return IFood
 	 */
 	public IFood createRecipe(String name, Map<IFood, Double> ingredientsByServings) {
-		return new Recipe( name, ingredientsByServings );
+		Recipe recipe = new Recipe( name, ingredientsByServings );
+		recipe.compile();
+
+		return recipe;
 	}
 }
@@ -6,9 +6,24 @@ package model.food;
  * @author Team A
  */
 public interface IFood {
+	// Positions of the nutrients in the buffer filled by getNutrients()
+	int CALORIES = 0;
+	int FAT = 1;
+	int CARB = 2;
+	int PROTEIN = 3;
+	int NUTRIENT_COUNT = 4;
+
 	String getName();
 	double getCalories();
 	double getFat() ;
 	double getCarb();
 	double getProtein() ;
+
+	/**
+	 * Writes all nutrient values into the buffer in one pass, at CALORIES, FAT, CARB and PROTEIN
+	 *
+	 * @param nutrients buffer of at least NUTRIENT_COUNT values
+	 * @return nutrients
+	 */
+	double[] getNutrients(double[] nutrients);
 }
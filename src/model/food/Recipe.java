@@ -5,12 +5,18 @@ import java.util.*;
 /**
  * Represents a recipe food and holds its properties
  *
+ * Recipes can be read from any thread: the ingredient map is replaced instead of changed, and the flattened
+ * ingredients and nutrients are only cached if the recipe was not invalidated while they were being calculated.
+ *
  * @author Team A
  */
 public class Recipe implements IFood {
-	private String name;
+	private final String name;
 
-	private Map<IFood,Double> ingredients; // Contains the ingredient and its serving size
+	private volatile Map<IFood,Double> ingredients; // Contains the ingredient and its serving size, kept for food.csv
+	private volatile Compiled compiled; // The flattened ingredients; null until compiled
+	private volatile double[] nutrients; // Cached calories, fat, carb and protein; null until calculated
+	private volatile int generation; // Incremented by invalidate()
 
 	public Recipe(String name, Map<IFood, Double> ingredients) {
 		this.name = name;
@@ -24,52 +30,132 @@ public class Recipe implements IFood {
 
 	@Override
 	public double getCalories() {
-		double cals = 0;
-
-		// Iterate through all mappings
-		for(Map.Entry<IFood,Double> entry : ingredients.entrySet()) {
-			// Calculate calories
-			cals += entry.getKey().getCalories() * entry.getValue();
-			cals = Math.round(cals * 10.0) / 10.0;
-		}
-
-		return cals;
+		return getCachedNutrients()[CALORIES];
 	}
 
 	@Override
 	public double getFat() {
-		double fat = 0;
+		return getCachedNutrients()[FAT];
+	}
 
-		for(Map.Entry<IFood,Double> entry : ingredients.entrySet()) {
-			fat += entry.getKey().getFat() * entry.getValue();
-			fat = Math.round(fat * 10.0) / 10.0;
-		}
+	@Override
+	public double getCarb() {
+		return getCachedNutrients()[CARB];
+	}
 
-		return fat;
+	@Override
+	public double getProtein() {
+		return getCachedNutrients()[PROTEIN];
 	}
 
 	@Override
-	public double getCarb() {
-		double carbs = 0;
+	public double[] getNutrients(double[] nutrients) {
+		System.arraycopy( getCachedNutrients(), 0, nutrients, 0, NUTRIENT_COUNT );
+		return nutrients;
+	}
 
-		for(Map.Entry<IFood,Double> entry : ingredients.entrySet()){
-			carbs += entry.getKey().getCarb() * entry.getValue();
-			carbs = Math.round(carbs * 10.0) / 10.0;
+	/**
+	 * Returns the cached nutrients, calculating them from the flattened ingredients if needed
+	 *
+	 * @return nutrients at CALORIES, FAT, CARB and PROTEIN
+	 */
+	private double[] getCachedNutrients() {
+		double[] n = nutrients;
+
+		if(n == null) {
+			int g = generation;
+			Compiled c = compile();
+			n = new double[NUTRIENT_COUNT];
+
+			// Dot product of the basic foods' nutrients and their effective servings
+			for(int i=0; i<c.size; i++) {
+				for(int j=0; j<NUTRIENT_COUNT; j++) {
+					n[j] += c.nutrients[i * NUTRIENT_COUNT + j] * c.servings[i];
+				}
+			}
+
+			// Format to one point double
+			for(int j=0; j<NUTRIENT_COUNT; j++) {
+				n[j] = Math.round(n[j] * 10.0) / 10.0;
+			}
+
+			synchronized(this) {
+				if(g == generation) {
+					nutrients = n;
+				}
+			}
 		}
 
-		return carbs;
+		return n;
 	}
 
-	@Override
-	public double getProtein() {
-		double protein = 0 ;
-
-		for (Map.Entry<IFood,Double> entry : ingredients.entrySet()) {
-			protein += entry.getKey().getProtein() * entry.getValue();
-			protein = Math.round(protein * 10.0) / 10.0;
+	/**
+	 * Flattens the recipe into the basic foods it is made of, each with its servings multiplied through every level
+	 * of nesting, ie.) a recipe of 2 servings of a recipe with 1.5 servings of Hot Dog has 3 servings of Hot Dog.
+	 * Sub-recipes are flattened once and reused.
+	 *
+	 * @return the flattened ingredients
+	 */
+	Compiled compile() {
+		Compiled c = compiled;
+
+		if(c == null) {
+			int g = generation;
+			c = new Compiled();
+			double[] basic = new double[NUTRIENT_COUNT];
+
+			for(Map.Entry<IFood,Double> entry : ingredients.entrySet()) {
+				IFood food = entry.getKey();
+				double servings = entry.getValue();
+
+				if(food instanceof Recipe) {
+					Compiled sub = ((Recipe) food).compile();
+
+					for(int i=0; i<sub.size; i++) {
+						c.add( sub.foods[i], sub.nutrients, i * NUTRIENT_COUNT, sub.servings[i] * servings );
+					}
+				}
+				else {
+					c.add( food, food.getNutrients(basic), 0, servings );
+				}
+			}
+
+			c.positions = null;
+
+			synchronized(this) {
+				if(g == generation) {
+					compiled = c;
+				}
+			}
 		}
 
-		return protein;
+		return c;
+	}
+
+	/**
+	 * Drops the flattened ingredients and cached nutrients, called by FoodCollection when an ingredient changes.
+	 * The recipe is compiled again the next time it is read.
+	 */
+	synchronized void invalidate() {
+		generation++;
+		compiled = null;
+		nutrients = null;
+	}
+
+	/**
+	 * Uses a new version of an ingredient in place of the old one, keeping its servings
+	 *
+	 * @param oldFood
+	 * @param newFood
+	 */
+	synchronized void replaceIngredient(IFood oldFood, IFood newFood) {
+		Map<IFood, Double> copy = new LinkedHashMap<>( ingredients );
+		Double servings = copy.remove( oldFood );
+
+		if(servings != null) {
+			copy.put( newFood, servings );
+			ingredients = copy;
+		}
 	}
 
 	/**
@@ -80,4 +166,74 @@ public class Recipe implements IFood {
 	public Map<IFood, Double> getIngredients() {
 		return this.ingredients;
 	}
+
+	/**
+	 * A recipe flattened into parallel arrays: each basic food, its nutrients and its effective servings
+	 */
+	static class Compiled {
+		private IFood[] foods = new IFood[4];
+		private double[] nutrients = new double[4 * NUTRIENT_COUNT]; // NUTRIENT_COUNT values per food
+		private double[] servings = new double[4];
+		private int size;
+		private Map<IFood, Integer> positions; // Only used while compiling recipes with many basic foods
+
+		/**
+		 * Adds servings of a basic food, merging them with servings already added for the same food
+		 *
+		 * @param food
+		 * @param values nutrients of the food
+		 * @param offset position of the food's nutrients in values
+		 * @param amount effective servings
+		 */
+		void add(IFood food, double[] values, int offset, double amount) {
+			int position = indexOf( food );
+
+			if(position >= 0) {
+				servings[position] += amount;
+				return;
+			}
+
+			if(size == foods.length) {
+				foods = Arrays.copyOf( foods, size * 2 );
+				nutrients = Arrays.copyOf( nutrients, size * 2 * NUTRIENT_COUNT );
+				servings = Arrays.copyOf( servings, size * 2 );
+			}
+
+			foods[size] = food;
+			System.arraycopy( values, offset, nutrients, size * NUTRIENT_COUNT, NUTRIENT_COUNT );
+			servings[size] = amount;
+			if(positions != null) {
+				positions.put( food, size );
+			}
+			size++;
+		}
+
+		/**
+		 * Finds a basic food, by scanning while there are few of them and through a map after that
+		 *
+		 * @param food
+		 * @return position or -1
+		 */
+		private int indexOf(IFood food) {
+			if(positions == null && size > 16) {
+				positions = new IdentityHashMap<>();
+				for(int i=0; i<size; i++) {
+					positions.put( foods[i], i );
+				}
+			}
+
+			if(positions != null) {
+				Integer position = positions.get( food );
+				return position == null ? -1 : position;
+			}
+
+			for(int i=0; i<size; i++) {
+				if(foods[i] == food) {
+					return i;
+				}
+			}
+
+			return -1;
+		}
+	}
 }
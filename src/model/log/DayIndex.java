@@ -0,0 +1,131 @@
+package model.log;
+
+import java.util.Arrays;
+
+/**
+ * The DayLogs of a LogCollection, sorted by epoch day (days since 1970-01-01, see LocalDate.toEpochDay()).
+ *
+ * Days are kept in a sorted primitive long array searched with a binary search, so lookups neither hash nor box the
+ * key and the days of any date range are next to each other. Logs are mostly added in date order, which appends.
+ *
+ * This is the writer's copy, only used while holding the LogCollection's lock. publish() hands the arrays to a
+ * LogSnapshot, after which the first size slots must not change: a day is still appended in place past the end, but
+ * replacing or inserting a day copies the arrays first. Until the next publish() the copies are changed in place, so
+ * a bulk load copies them at most once.
+ *
+ * @author Team A
+ */
+class DayIndex {
+	private static final int INITIAL_CAPACITY = 64;
+
+	private long[] keys;
+	private DayLog[] days;
+	private int size;
+
+	private boolean keysShared; // keys is part of a published snapshot
+	private boolean daysShared; // days is part of a published snapshot
+	private boolean changed; // A day was put since the last publish()
+	private LogSnapshot published;
+
+	DayIndex() {
+		this.keys = new long[INITIAL_CAPACITY];
+		this.days = new DayLog[INITIAL_CAPACITY];
+		this.published = new LogSnapshot( 0, keys, days, 0 );
+	}
+
+	/**
+	 * Returns the newest DayLog of an epoch day
+	 *
+	 * @param key
+	 * @return DayLog or null
+	 */
+	DayLog get(long key) {
+		int i = indexOf( keys, size, key );
+		return i >= 0 ? days[i] : null;
+	}
+
+	/**
+	 * Sets the DayLog of its day, replacing the older one or adding the day
+	 *
+	 * @param day
+	 */
+	void put(DayLog day) {
+		long key = day.getEpochDay();
+		int i = indexOf( keys, size, key );
+		changed = true;
+
+		if(i >= 0) {
+			if(daysShared) {
+				days = days.clone();
+				daysShared = false;
+			}
+
+			days[i] = day;
+			return;
+		}
+
+		// Insert at the position the search returned
+		i = -(i + 1);
+
+		if(size == keys.length) {
+			keys = Arrays.copyOf( keys, size * 2 );
+			days = Arrays.copyOf( days, size * 2 );
+			keysShared = false;
+			daysShared = false;
+		}
+		else if(i < size) {
+			// Only slots past the published size can be written in place
+			if(keysShared) {
+				keys = keys.clone();
+				keysShared = false;
+			}
+			if(daysShared) {
+				days = days.clone();
+				daysShared = false;
+			}
+		}
+
+		System.arraycopy( keys, i, keys, i+1, size-i );
+		System.arraycopy( days, i, days, i+1, size-i );
+
+		keys[i] = key;
+		days[i] = day;
+		size++;
+	}
+
+	/**
+	 * Publishes the days as they are now
+	 *
+	 * @return the new snapshot, or the last one if nothing changed since
+	 */
+	LogSnapshot publish() {
+		if(changed) {
+			published = new LogSnapshot( published.getVersion() + 1, keys, days, size );
+			keysShared = true;
+			daysShared = true;
+			changed = false;
+		}
+
+		return published;
+	}
+
+	/**
+	 * Searches for an epoch day
+	 *
+	 * @param keys sorted epoch days
+	 * @param size how many of the keys are used
+	 * @param key
+	 * @return position of the day, or -(insertion point) - 1 as in Arrays.binarySearch()
+	 */
+	static int indexOf(long[] keys, int size, long key) {
+		// Checking the last day first makes logging in date order constant time
+		if(size == 0 || key > keys[size-1]) {
+			return -(size + 1);
+		}
+		if(key == keys[size-1]) {
+			return size - 1;
+		}
+
+		return Arrays.binarySearch( keys, 0, size, key );
+	}
+}
@@ -0,0 +1,377 @@
+package model.log;
+
+import java.util.Arrays;
+
+/**
+ * Everything logged for one day. Foods and exercises are kept as ids into the LogCollection's name table with their
+ * servings or durations in parallel primitive arrays, so an entry costs an int and a double instead of two Strings.
+ *
+ * A DayLog is one version of a day and never changes. The LogCollection makes the next version with withFood(),
+ * withoutFood() and the like, and publishes it in a new LogSnapshot. Adding an entry writes it past the end of the
+ * arrays, which older versions do not read, so the arrays are only copied when they are full or an entry is removed.
+ *
+ * @author Team A
+ */
+public class DayLog {
+	private static final int INITIAL_CAPACITY = 4;
+
+	private final long epochDay;
+	private final NameTable names;
+
+	private final int[] foodIds;
+	private final double[] foodServings;
+	private final int foodCount;
+
+	private final int[] exerciseIds;
+	private final double[] exerciseDurations;
+	private final int exerciseCount;
+
+	private final double weight; // NaN when not logged
+	private final double calorieLimit; // NaN when not logged
+
+	private volatile Totals totals; // Calculated by LogCollection, null until first read
+
+	DayLog(long epochDay, NameTable names) {
+		this( epochDay, names, new int[0], new double[0], 0, new int[0], new double[0], 0, Double.NaN, Double.NaN, null );
+	}
+
+	private DayLog(long epochDay, NameTable names, int[] foodIds, double[] foodServings, int foodCount,
+	               int[] exerciseIds, double[] exerciseDurations, int exerciseCount,
+	               double weight, double calorieLimit, Totals totals) {
+		this.epochDay = epochDay;
+		this.names = names;
+		this.foodIds = foodIds;
+		this.foodServings = foodServings;
+		this.foodCount = foodCount;
+		this.exerciseIds = exerciseIds;
+		this.exerciseDurations = exerciseDurations;
+		this.exerciseCount = exerciseCount;
+		this.weight = weight;
+		this.calorieLimit = calorieLimit;
+		this.totals = totals;
+	}
+
+	/**
+	 * Returns the day, as the number of days since 1970-01-01
+	 *
+	 * @return long
+	 */
+	public long getEpochDay() {
+		return epochDay;
+	}
+
+	/**
+	 * Returns the day
+	 *
+	 * @return date in yyyy-mm-dd format
+	 */
+	public String getDate() {
+		return LogCollection.toDate( epochDay );
+	}
+
+	/**
+	 * Returns the number of logged foods
+	 *
+	 * @return int
+	 */
+	public int getFoodCount() {
+		return foodCount;
+	}
+
+	/**
+	 * Returns the name id of a logged food, see LogCollection.getName()
+	 *
+	 * @param i index of the entry
+	 * @return int
+	 */
+	public int getFoodId(int i) {
+		return foodIds[i];
+	}
+
+	/**
+	 * Returns the name of a logged food
+	 *
+	 * @param i index of the entry
+	 * @return String
+	 */
+	public String getFoodName(int i) {
+		return names.getName( foodIds[i] );
+	}
+
+	/**
+	 * Returns the servings of a logged food
+	 *
+	 * @param i index of the entry
+	 * @return double
+	 */
+	public double getFoodServings(int i) {
+		return foodServings[i];
+	}
+
+	/**
+	 * Returns the number of logged exercises
+	 *
+	 * @return int
+	 */
+	public int getExerciseCount() {
+		return exerciseCount;
+	}
+
+	/**
+	 * Returns the name id of a logged exercise, see LogCollection.getName()
+	 *
+	 * @param i index of the entry
+	 * @return int
+	 */
+	public int getExerciseId(int i) {
+		return exerciseIds[i];
+	}
+
+	/**
+	 * Returns the name of a logged exercise
+	 *
+	 * @param i index of the entry
+	 * @return String
+	 */
+	public String getExerciseName(int i) {
+		return names.getName( exerciseIds[i] );
+	}
+
+	/**
+	 * Returns the duration in minutes of a logged exercise
+	 *
+	 * @param i index of the entry
+	 * @return double
+	 */
+	public double getExerciseDuration(int i) {
+		return exerciseDurations[i];
+	}
+
+	/**
+	 * Returns the logged weight
+	 *
+	 * @return weight or NaN if none was logged
+	 */
+	public double getWeight() {
+		return weight;
+	}
+
+	/**
+	 * Returns the logged calorie limit
+	 *
+	 * @return calorie limit or NaN if none was logged
+	 */
+	public double getCalorieLimit() {
+		return calorieLimit;
+	}
+
+	/**
+	 * Checks if nothing is logged for the day
+	 *
+	 * @return boolean
+	 */
+	public boolean isEmpty() {
+		return foodCount == 0 && exerciseCount == 0 && Double.isNaN(weight) && Double.isNaN(calorieLimit);
+	}
+
+	/**
+	 * Returns the next version with a food added, only called on the newest version of the day
+	 *
+	 * @param id
+	 * @param servings
+	 * @param totals the totals of the next version, null to calculate them when read
+	 * @return DayLog
+	 */
+	DayLog withFood(int id, double servings, Totals totals) {
+		int[] ids = foodIds;
+		double[] values = foodServings;
+
+		if(foodCount == ids.length) {
+			int capacity = Math.max( INITIAL_CAPACITY, foodCount * 2 );
+			ids = Arrays.copyOf( ids, capacity );
+			values = Arrays.copyOf( values, capacity );
+		}
+
+		ids[foodCount] = id;
+		values[foodCount] = servings;
+
+		return new DayLog( epochDay, names, ids, values, foodCount+1, exerciseIds, exerciseDurations, exerciseCount, weight, calorieLimit, totals );
+	}
+
+	/**
+	 * Returns the next version with an exercise added, only called on the newest version of the day
+	 *
+	 * @param id
+	 * @param duration
+	 * @param totals the totals of the next version, null to calculate them when read
+	 * @return DayLog
+	 */
+	DayLog withExercise(int id, double duration, Totals totals) {
+		int[] ids = exerciseIds;
+		double[] values = exerciseDurations;
+
+		if(exerciseCount == ids.length) {
+			int capacity = Math.max( INITIAL_CAPACITY, exerciseCount * 2 );
+			ids = Arrays.copyOf( ids, capacity );
+			values = Arrays.copyOf( values, capacity );
+		}
+
+		ids[exerciseCount] = id;
+		values[exerciseCount] = duration;
+
+		return new DayLog( epochDay, names, foodIds, foodServings, foodCount, ids, values, exerciseCount+1, weight, calorieLimit, totals );
+	}
+
+	/**
+	 * Counts the logged foods with the given id and servings
+	 *
+	 * @param id
+	 * @param servings
+	 * @return int
+	 */
+	int countFood(int id, double servings) {
+		return count( foodIds, foodServings, foodCount, id, servings );
+	}
+
+	/**
+	 * Counts the logged exercises with the given id and duration
+	 *
+	 * @param id
+	 * @param duration
+	 * @return int
+	 */
+	int countExercise(int id, double duration) {
+		return count( exerciseIds, exerciseDurations, exerciseCount, id, duration );
+	}
+
+	/**
+	 * Returns the next version without the first logged food with the given id and servings, keeping the order of
+	 * the others
+	 *
+	 * @param id
+	 * @param servings
+	 * @param totals the totals of the next version, null to calculate them when read
+	 * @return DayLog, this if there is no such food
+	 */
+	DayLog withoutFood(int id, double servings, Totals totals) {
+		int i = indexOf( foodIds, foodServings, foodCount, id, servings );
+
+		if(i < 0) {
+			return this;
+		}
+
+		// Older versions still read the removed entry, so copy around it
+		int[] ids = new int[foodIds.length];
+		double[] values = new double[foodIds.length];
+		System.arraycopy( foodIds, 0, ids, 0, i );
+		System.arraycopy( foodServings, 0, values, 0, i );
+		System.arraycopy( foodIds, i+1, ids, i, foodCount-i-1 );
+		System.arraycopy( foodServings, i+1, values, i, foodCount-i-1 );
+
+		return new DayLog( epochDay, names, ids, values, foodCount-1, exerciseIds, exerciseDurations, exerciseCount, weight, calorieLimit, totals );
+	}
+
+	/**
+	 * Returns the next version without the first logged exercise with the given id and duration, keeping the order
+	 * of the others
+	 *
+	 * @param id
+	 * @param duration
+	 * @param totals the totals of the next version, null to calculate them when read
+	 * @return DayLog, this if there is no such exercise
+	 */
+	DayLog withoutExercise(int id, double duration, Totals totals) {
+		int i = indexOf( exerciseIds, exerciseDurations, exerciseCount, id, duration );
+
+		if(i < 0) {
+			return this;
+		}
+
+		// Older versions still read the removed entry, so copy around it
+		int[] ids = new int[exerciseIds.length];
+		double[] values = new double[exerciseIds.length];
+		System.arraycopy( exerciseIds, 0, ids, 0, i );
+		System.arraycopy( exerciseDurations, 0, values, 0, i );
+		System.arraycopy( exerciseIds, i+1, ids, i, exerciseCount-i-1 );
+		System.arraycopy( exerciseDurations, i+1, values, i, exerciseCount-i-1 );
+
+		return new DayLog( epochDay, names, foodIds, foodServings, foodCount, ids, values, exerciseCount-1, weight, calorieLimit, totals );
+	}
+
+	/**
+	 * Returns the next version with the weight set
+	 *
+	 * @param weight
+	 * @return DayLog
+	 */
+	DayLog withWeight(double weight) {
+		return new DayLog( epochDay, names, foodIds, foodServings, foodCount, exerciseIds, exerciseDurations, exerciseCount, weight, calorieLimit, totals );
+	}
+
+	/**
+	 * Returns the next version with the calorie limit set
+	 *
+	 * @param calorieLimit
+	 * @return DayLog
+	 */
+	DayLog withCalorieLimit(double calorieLimit) {
+		return new DayLog( epochDay, names, foodIds, foodServings, foodCount, exerciseIds, exerciseDurations, exerciseCount, weight, calorieLimit, totals );
+	}
+
+	/**
+	 * Returns the totals last calculated for this version
+	 *
+	 * @return Totals or null
+	 */
+	Totals getTotals() {
+		return totals;
+	}
+
+	/**
+	 * Keeps calculated totals, any thread may call this since the totals only depend on the entries and the version
+	 * of the foods and exercises they were calculated with
+	 *
+	 * @param totals
+	 */
+	void setTotals(Totals totals) {
+		this.totals = totals;
+	}
+
+	private static int count(int[] ids, double[] values, int size, int id, double value) {
+		int count = 0;
+
+		for(int i=0; i<size; i++) {
+			if(ids[i] == id && values[i] == value) {
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	private static int indexOf(int[] ids, double[] values, int size, int id, double value) {
+		for(int i=0; i<size; i++) {
+			if(ids[i] == id && values[i] == value) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * The calories and nutrients of a day's foods and the calories its exercises burn per 100 lb of body weight, as
+	 * calculated with one version of the foods and exercises
+	 */
+	static class Totals {
+		final long version; // See LogCollection.getCatalogVersion()
+		final double[] nutrients; // calories, fat, carb, protein
+		final double burnRate;
+
+		Totals(long version, double[] nutrients, double burnRate) {
+			this.version = version;
+			this.nutrients = nutrients;
+			this.burnRate = burnRate;
+		}
+	}
+}
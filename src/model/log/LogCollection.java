@@ -1,110 +1,338 @@
 package model.log;
 
+import model.ChangeEvent;
+import model.ObservableCollection;
+import model.exercise.Exercise;
+import model.exercise.ExerciseCollection;
+import model.food.FoodCollection;
+import model.food.IFood;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
 import java.util.*;
 
 /**
  * Stores information taken from log.csv
  *
+ * Each day is a DayLog, which keeps foods and exercises as name ids with primitive servings and durations.
+ * getFoodLog() and getExerciseLog() still return the older "name, amount" String lists.
+ *
+ * Days are indexed by epoch day and kept in date order. Every method taking a "yyyy-mm-dd" date has an overload
+ * taking the epoch day, see toEpochDay().
+ *
+ * Each day also keeps running totals of its nutrients and burned calories, updated as entries are added and removed.
+ * When a food or exercise is added or replaced the totals of every day are out of date, and a day's totals are
+ * calculated again the next time they are read.
+ *
+ * Readers never lock: every change publishes a new LogSnapshot, and the getters read the newest one. The DayLogs in
+ * a snapshot never change, a change to a day makes a new version of it, see DayLog. Use getSnapshot() to read several
+ * days or values from one point in time. Changes hold the collection's lock, and changes made in a bulk scope are
+ * published together when it ends, see ObservableCollection.beginBulk(). Observers are notified after the change is
+ * published.
+ *
  * @author Team A
  */
-public class LogCollection extends Observable {
-	private Map<String, List<String>> loggedFoods; // ie.) "2018-10-15" -> [ "Hot Dog", "1.5", "Coffee", "2.5" ]
-	private Map<String, List<String>> loggedExercises; // ie.) "2018-10-15" -> [ "Gardening", "1.5", "Jogging (5 mph)", "2.5" ]
-	private Map<String, Double> loggedWeights;
-	private Map<String, Double> loggedCaloriesLimit;
+public class LogCollection extends ObservableCollection {
+	public static final double DEFAULT_WEIGHT = 150.0; // Used for burned calories when no weight is logged
+
+	private DayIndex days; // ie.) 17819 (2018-10-15) -> DayLog, the writer's copy
+	private volatile LogSnapshot snapshot; // The newest published days
+	private final Object lock = new Object(); // Held while changing the logs
+	private NameTable names;
+	private FoodCollection fCollection;
+	private ExerciseCollection eCollection;
+
+	/**
+	 * Creates a LogCollection whose totals use the given foods and exercises
+	 *
+	 * @param f
+	 * @param e
+	 */
+	public LogCollection(FoodCollection f, ExerciseCollection e) {
+		super( ChangeEvent.Entity.LOG );
+		this.days = new DayIndex();
+		this.snapshot = days.publish();
+		this.names = new NameTable();
+		this.fCollection = f;
+		this.eCollection = e;
+	}
 
+	/**
+	 * Creates a LogCollection without foods and exercises, its totals are always 0
+	 */
 	public LogCollection() {
-		this.loggedFoods = new HashMap<>();
-		this.loggedExercises = new HashMap<>();
-		this.loggedWeights = new HashMap<>();
-		this.loggedCaloriesLimit = new HashMap<>();
+		this( new FoodCollection(), new ExerciseCollection() );
+	}
+
+	/**
+	 * Converts a date to the number of days since 1970-01-01
+	 *
+	 * @param date in yyyy-mm-dd format, month and day may have one digit
+	 * @return epoch day
+	 * @throws IllegalArgumentException if the date is not valid
+	 */
+	public static long toEpochDay(String date) {
+		String[] parts = date.trim().split("-");
+
+		if(parts.length != 3) {
+			throw new IllegalArgumentException( "Invalid date: " + date );
+		}
+
+		return toEpochDay( Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()), Integer.parseInt(parts[2].trim()) );
 	}
 
 	/**
-	 * Adds an entry to loggedFoods
+	 * Converts a date to the number of days since 1970-01-01
+	 *
+	 * @param year
+	 * @param month 1 to 12
+	 * @param day 1 to 31
+	 * @return epoch day
+	 * @throws IllegalArgumentException if the date is not valid
+	 */
+	public static long toEpochDay(int year, int month, int day) {
+		try {
+			return LocalDate.of( year, month, day ).toEpochDay();
+		}
+		catch(DateTimeException dte) {
+			throw new IllegalArgumentException( "Invalid date: " + year + "-" + month + "-" + day );
+		}
+	}
+
+	/**
+	 * Converts an epoch day back to a date
+	 *
+	 * @param epochDay
+	 * @return date in yyyy-mm-dd format
+	 */
+	public static String toDate(long epochDay) {
+		return LocalDate.ofEpochDay( epochDay ).toString();
+	}
+
+	/**
+	 * Finds the DayLog for a date
+	 *
+	 * @param date
+	 * @return DayLog or null if nothing was logged or the date is not valid
+	 */
+	private DayLog find(String date) {
+		return snapshot.getDay( date );
+	}
+
+	/**
+	 * Returns the newest published version of the logs
+	 *
+	 * @return LogSnapshot
+	 */
+	public LogSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Publishes every change made so far, even inside a bulk scope, and returns it, ie.) so that a save taken on the
+	 * ModelWriter thread between two commands of a batch matches the journal
+	 *
+	 * @return LogSnapshot
+	 */
+	public LogSnapshot publishSnapshot() {
+		synchronized(lock) {
+			snapshot = days.publish();
+			return snapshot;
+		}
+	}
+
+	/**
+	 * Publishes the changes, unless a bulk scope is open. The caller holds the lock.
+	 */
+	private void publish() {
+		if(!isBulk()) {
+			snapshot = days.publish();
+		}
+	}
+
+	/**
+	 * Publishes the changes made in the bulk scope before the observers are notified
+	 */
+	@Override
+	public void endBulk() {
+		synchronized(lock) {
+			snapshot = days.publish();
+		}
+
+		super.endBulk();
+	}
+
+	/**
+	 * Returns the newest version of a day, creating it if needed. The caller holds the lock.
+	 *
+	 * @param epochDay
+	 * @return DayLog
+	 */
+	private DayLog getOrCreate(long epochDay) {
+		DayLog day = days.get( epochDay );
+
+		if(day == null) {
+			day = new DayLog( epochDay, names );
+
+			// Keep running totals from the start, except in a bulk load where they are calculated when first read
+			if(!isBulk()) {
+				day.setTotals( new DayLog.Totals( getCatalogVersion(), new double[IFood.NUTRIENT_COUNT], 0.0 ) );
+			}
+		}
+
+		return day;
+	}
+
+	/**
+	 * Adds an entry to the food log
 	 *
 	 * @param date
 	 * @param food
 	 * @param servings
 	 */
 	public void addFoodLog(String date, String food, String servings) {
+		addFoodLog( toEpochDay(date), food, Double.parseDouble(servings) );
+	}
+
+	/**
+	 * Adds an entry to the food log
+	 *
+	 * @param date
+	 * @param food
+	 * @param servings
+	 */
+	public void addFoodLog(String date, String food, double servings) {
+		addFoodLog( toEpochDay(date), food, servings );
+	}
+
+	/**
+	 * Adds an entry to the food log
+	 *
+	 * @param epochDay
+	 * @param food
+	 * @param servings
+	 */
+	public void addFoodLog(long epochDay, String food, double servings) {
 		// Format servings to one point double
-		double s = Math.round( Double.parseDouble(servings) * 10.0) / 10.0;
-
-		// Check if list of food exists for date
-		if(loggedFoods.get(date) == null) {
-			List<String>foodByServing = new ArrayList<>();
-			foodByServing.add(food);
-			foodByServing.add( Double.toString( s ) );
-			loggedFoods.put( date, foodByServing );
-		}
-		else {
-			List<String>foodByServing = loggedFoods.get(date);
-			foodByServing.add( food );
-			foodByServing.add( Double.toString( s ) );
-			loggedFoods.put( date, foodByServing );
+		double s = Math.round( servings * 10.0) / 10.0;
+
+		synchronized(lock) {
+			DayLog day = getOrCreate( epochDay );
+			day = day.withFood( names.intern(food), s, addFood(day.getTotals(), food, s, day.getFoodCount() + 1) );
+			days.put( day );
+			publish();
 		}
 
 		// Notify observers that the data has changed
-		this.setChanged();
-		this.notifyObservers();
-		this.clearChanged();
+		this.fireChange( new ChangeEvent( ChangeEvent.Entity.FOOD_LOG, ChangeEvent.Kind.ADDED, food, epochDay ) );
 	}
 
 	/**
-	 * Adds an entry to loggedExercises
+	 * Adds an entry to the exercise log
 	 *
 	 * @param date Date of exercise in yyyy-mm-dd format
 	 * @param exerciseName The name of the exercies
 	 * @param exerciseDuration The duration in minutes
 	 */
 	public void addExerciseLog(String date, String exerciseName, String exerciseDuration) {
+		addExerciseLog( toEpochDay(date), exerciseName, Double.parseDouble(exerciseDuration) );
+	}
+
+	/**
+	 * Adds an entry to the exercise log
+	 *
+	 * @param date Date of exercise in yyyy-mm-dd format
+	 * @param exerciseName The name of the exercies
+	 * @param exerciseDuration The duration in minutes
+	 */
+	public void addExerciseLog(String date, String exerciseName, double exerciseDuration) {
+		addExerciseLog( toEpochDay(date), exerciseName, exerciseDuration );
+	}
+
+	/**
+	 * Adds an entry to the exercise log
+	 *
+	 * @param epochDay Date of exercise
+	 * @param exerciseName The name of the exercies
+	 * @param exerciseDuration The duration in minutes
+	 */
+	public void addExerciseLog(long epochDay, String exerciseName, double exerciseDuration) {
 		// Format servings to one point double
-		double d = Math.round( Double.parseDouble(exerciseDuration) * 10.0) / 10.0;
+		double d = Math.round( exerciseDuration * 10.0) / 10.0;
 
-		List<String> exerciseList = loggedExercises.get(date) == null ? new ArrayList<>() : loggedExercises.get(date);
-		exerciseList.add(exerciseName);
-		exerciseList.add( Double.toString(d) );
-		this.loggedExercises.put( date, exerciseList );
+		synchronized(lock) {
+			DayLog day = getOrCreate( epochDay );
+			day = day.withExercise( names.intern(exerciseName), d, addExercise(day.getTotals(), exerciseName, d, day.getExerciseCount() + 1) );
+			days.put( day );
+			publish();
+		}
 
 		// Notify observers that the data has changed
-		this.setChanged();
-		this.notifyObservers();
-		this.clearChanged();
+		this.fireChange( new ChangeEvent( ChangeEvent.Entity.EXERCISE_LOG, ChangeEvent.Kind.ADDED, exerciseName, epochDay ) );
 	}
 
 	/**
-	 * Adds a weight to loggedWeights
+	 * Logs the weight for a day
 	 *
 	 * @param date
 	 * @param weight
 	 */
 	public void addWeightLog(String date, double weight) {
-		loggedWeights.put( date, weight );
+		addWeightLog( toEpochDay(date), weight );
+	}
+
+	/**
+	 * Logs the weight for a day
+	 *
+	 * @param epochDay
+	 * @param weight
+	 */
+	public void addWeightLog(long epochDay, double weight) {
+		ChangeEvent.Kind kind;
+
+		synchronized(lock) {
+			DayLog day = getOrCreate( epochDay );
+			kind = Double.isNaN( day.getWeight() ) ? ChangeEvent.Kind.ADDED : ChangeEvent.Kind.REPLACED;
+			days.put( day.withWeight(weight) );
+			publish();
+		}
 
 		//Update observers
-		this.setChanged();
-		this.notifyObservers();
-		this.clearChanged();
+		this.fireChange( new ChangeEvent( ChangeEvent.Entity.WEIGHT, kind, null, epochDay ) );
 	}
 
 	/**
-	 * Adds a calorie limit to loggedCaloriesLimit
+	 * Logs the calorie limit for a day
 	 *
 	 * @param date
 	 * @param calorie
 	 */
 	public void addCalorieLimit(String date, double calorie) {
-		loggedCaloriesLimit.put( date, calorie );
+		addCalorieLimit( toEpochDay(date), calorie );
+	}
+
+	/**
+	 * Logs the calorie limit for a day
+	 *
+	 * @param epochDay
+	 * @param calorie
+	 */
+	public void addCalorieLimit(long epochDay, double calorie) {
+		ChangeEvent.Kind kind;
+
+		synchronized(lock) {
+			DayLog day = getOrCreate( epochDay );
+			kind = Double.isNaN( day.getCalorieLimit() ) ? ChangeEvent.Kind.ADDED : ChangeEvent.Kind.REPLACED;
+			days.put( day.withCalorieLimit(calorie) );
+			publish();
+		}
 
 		//Update observers
-		this.setChanged();
-		this.notifyObservers();
-		this.clearChanged();
+		this.fireChange( new ChangeEvent( ChangeEvent.Entity.CALORIE_LIMIT, kind, null, epochDay ) );
 	}
 
 	/**
-	 * Removes a logged food from logged Foods
+	 * Removes a logged food from the food log
 	 *
 	 * @param date
 	 * @param name
@@ -112,80 +340,66 @@ public class LogCollection extends Observable {
 	 * @return
 	 */
 	public String removeFoodLog(String date, String name, String servings) {
+		return removeFoodLog( date, name, Double.parseDouble(servings) );
+	}
+
+	/**
+	 * Removes a logged food from the food log
+	 *
+	 * @param date
+	 * @param name
+	 * @param servings
+	 * @return "Null" if there is no such entry, a message if there were duplicates and one was removed, else ""
+	 */
+	public String removeFoodLog(String date, String name, double servings) {
+		try {
+			return removeFoodLog( toEpochDay(date), name, servings );
+		}
+		catch(IllegalArgumentException iae) {
+			return "Null";
+		}
+	}
+
+	/**
+	 * Removes a logged food from the food log
+	 *
+	 * @param epochDay
+	 * @param name
+	 * @param servings
+	 * @return "Null" if there is no such entry, a message if there were duplicates and one was removed, else ""
+	 */
+	public String removeFoodLog(long epochDay, String name, double servings) {
 		// Format servings to one point double
-		double s = Math.round(Double.parseDouble(servings) * 10.0) / 10.0;
-		servings = Double.toString(s);
-
-		// Check if a value exists for that date
-		if( loggedFoods.get(date) != null) {
-			List<String> foods = loggedFoods.get(date); // All logged foods for that date
-			Map<String, Integer> freq = new HashMap<>(); // This map stores the count of repeating name, servings (if any)
-			String foodServings = name + servings; // Concatenate the name and servings as key for map
-
-			// Check the list for matching entries
-			for(int i=0; i<foods.size(); i++) {
-				if(foods.get(i).equals( name )) {
-					if(foods.get(i+1).equals(servings)) {
-
-						// Add to map
-						if(freq.containsKey(foodServings)) {
-							freq.put( foodServings, freq.get(foodServings)+1 );
-						}
-						else {
-							freq.put(foodServings, 1);
-						}
-					}
-				}
-			}
+		double s = Math.round( servings * 10.0) / 10.0;
 
-			if(freq.size() > 0) {
-				if(freq.get( foodServings ) > 1) { // If there are duplicates, remove one and return a string to the controller
-					int num = freq.get(foodServings);
-					freq.put( foodServings, freq.get(foodServings)-1 );
-
-					for(int i=0; i<foods.size(); i++) {
-						if(foods.get(i).equals( name )) {
-							if(foods.get(i+1).equals(servings)) {
-								foods.remove(i);
-								foods.remove(i);
-
-								// Notify observers that the data has changed
-								this.setChanged();
-								this.notifyObservers();
-								this.clearChanged();
-
-								break;
-							}
-						}
-					}
+		// Check if the food was ever logged
+		int id = names.getId( name );
+		if(id < 0) {
+			return "Null";
+		}
 
-					return String.format("There are %s duplicate entries! Removing one...", num);
-				}
-				else { // When there is only one duplicate remaining, remove it
-					for(int i=0; i<foods.size(); i++) {
-						if(foods.get(i).equals( name )) {
-							if(foods.get(i+1).equals(servings)) {
-								foods.remove(i);
-								foods.remove(i);
-
-								// Notify observers that the data has changed
-								this.setChanged();
-								this.notifyObservers();
-								this.clearChanged();
-
-								return "";
-							}
-						}
-					}
-				}
+		int num;
+
+		synchronized(lock) {
+			DayLog day = days.get( epochDay );
+			num = day == null ? 0 : day.countFood( id, s );
+			if(num == 0) {
+				return "Null";
 			}
+
+			days.put( day.withoutFood(id, s, addFood(day.getTotals(), name, -s, day.getFoodCount() - 1)) );
+			publish();
 		}
 
-		return "Null";
+		// Notify observers that the data has changed
+		this.fireChange( new ChangeEvent( ChangeEvent.Entity.FOOD_LOG, ChangeEvent.Kind.REMOVED, name, epochDay ) );
+
+		// If there are duplicates, one was removed and a string is returned to the controller
+		return num > 1 ? String.format("There are %s duplicate entries! Removing one...", num) : "";
 	}
 
 	/**
-	 * Removes a logged exercise from logged exercises
+	 * Removes a logged exercise from the exercise log
 	 *
 	 * @param date
 	 * @param name
@@ -193,151 +407,396 @@ public class LogCollection extends Observable {
 	 * @return
 	 */
 	public String removeExerciseLog(String date, String name, String duration) {
+		return removeExerciseLog( date, name, Double.parseDouble(duration) );
+	}
+
+	/**
+	 * Removes a logged exercise from the exercise log
+	 *
+	 * @param date
+	 * @param name
+	 * @param duration
+	 * @return "Null" if there is no such entry, a message if there were duplicates and one was removed, else ""
+	 */
+	public String removeExerciseLog(String date, String name, double duration) {
+		try {
+			return removeExerciseLog( toEpochDay(date), name, duration );
+		}
+		catch(IllegalArgumentException iae) {
+			return "Null";
+		}
+	}
+
+	/**
+	 * Removes a logged exercise from the exercise log
+	 *
+	 * @param epochDay
+	 * @param name
+	 * @param duration
+	 * @return "Null" if there is no such entry, a message if there were duplicates and one was removed, else ""
+	 */
+	public String removeExerciseLog(long epochDay, String name, double duration) {
 		// Format duration to one point double
-		double d = Math.round(Double.parseDouble(duration) * 10.0) / 10.0;
-		duration = Double.toString(d);
-
-		// Check if a value exists for that date
-		if( loggedExercises.get(date) != null) {
-			List<String> exercises = loggedExercises.get(date); // All logged exercises for that date
-			Map<String, Integer> freq = new HashMap<>(); // This map stores the count of repeating name, servings (if any)
-			String exerciseDuration = name + duration; // Concatenate the name and duration as key for map
-
-			// Check the list for matching entries
-			for(int i=0; i<exercises.size(); i++) {
-				if(exercises.get(i).equals( name )) {
-					if(exercises.get(i+1).equals(duration)) {
-
-						// Add to map
-						if(freq.containsKey(exerciseDuration)) {
-							freq.put( exerciseDuration, freq.get(exerciseDuration)+1 );
-						}
-						else {
-							freq.put(exerciseDuration, 1);
-						}
-					}
-				}
+		double d = Math.round( duration * 10.0) / 10.0;
+
+		// Check if the exercise was ever logged
+		int id = names.getId( name );
+		if(id < 0) {
+			return "Null";
+		}
+
+		int num;
+
+		synchronized(lock) {
+			DayLog day = days.get( epochDay );
+			num = day == null ? 0 : day.countExercise( id, d );
+			if(num == 0) {
+				return "Null";
 			}
 
-			if(freq.size() > 0) {
-				if(freq.get( exerciseDuration ) > 1) { // If there are duplicates, remove one and return a string to the controller
-					int num = freq.get(exerciseDuration);
-					freq.put( exerciseDuration, freq.get(exerciseDuration)-1 );
-
-					for(int i=0; i<exercises.size(); i++) {
-						if(exercises.get(i).equals( name )) {
-							if(exercises.get(i+1).equals(duration)) {
-								exercises.remove(i);
-								exercises.remove(i);
-
-								// Notify observers that the data has changed
-								this.setChanged();
-								this.notifyObservers();
-								this.clearChanged();
-
-								break;
-							}
-						}
-					}
+			days.put( day.withoutExercise(id, d, addExercise(day.getTotals(), name, -d, day.getExerciseCount() - 1)) );
+			publish();
+		}
 
-					return String.format("There are %s duplicate entries! Removing one...", num);
-				}
-				else { // When there is only one duplicate remaining, remove it
-					for(int i=0; i<exercises.size(); i++) {
-						if(exercises.get(i).equals( name )) {
-							if(exercises.get(i+1).equals(duration)) {
-								exercises.remove(i);
-								exercises.remove(i);
-
-								// Notify observers that the data has changed
-								this.setChanged();
-								this.notifyObservers();
-								this.clearChanged();
-
-								return "";
-							}
-						}
+		// Notify observers that the data has changed
+		this.fireChange( new ChangeEvent( ChangeEvent.Entity.EXERCISE_LOG, ChangeEvent.Kind.REMOVED, name, epochDay ) );
+
+		// If there are duplicates, one was removed and a string is returned to the controller
+		return num > 1 ? String.format("There are %s duplicate entries! Removing one...", num) : "";
+	}
+
+	/**
+	 * Returns the version of the foods and exercises, see FoodCollection.getVersion()
+	 *
+	 * @return long
+	 */
+	private long getCatalogVersion() {
+		return ((long) fCollection.getVersion() << 32) | (eCollection.getVersion() & 0xffffffffL);
+	}
+
+	/**
+	 * Adds a logged or removed food to a day's totals
+	 *
+	 * @param totals totals of the day before the change, may be null
+	 * @param name
+	 * @param servings negative when the food was removed
+	 * @param foodCount number of foods after the change
+	 * @return totals of the day after the change, null if they must be calculated in full when read
+	 */
+	private DayLog.Totals addFood(DayLog.Totals totals, String name, double servings, int foodCount) {
+		if(totals == null || totals.version != getCatalogVersion()) {
+			return null;
+		}
+
+		double[] nutrients = new double[IFood.NUTRIENT_COUNT];
+
+		// Avoid leaving rounding residue behind once the last food is removed
+		if(foodCount > 0) {
+			IFood food = fCollection.getFood( name );
+			if(food != null) {
+				food.getNutrients( nutrients );
+			}
+
+			for(int i=0; i<IFood.NUTRIENT_COUNT; i++) {
+				nutrients[i] = totals.nutrients[i] + nutrients[i] * servings;
+			}
+		}
+
+		return new DayLog.Totals( totals.version, nutrients, totals.burnRate );
+	}
+
+	/**
+	 * Adds a logged or removed exercise to a day's burn rate
+	 *
+	 * @param totals totals of the day before the change, may be null
+	 * @param name
+	 * @param duration negative when the exercise was removed
+	 * @param exerciseCount number of exercises after the change
+	 * @return totals of the day after the change, null if they must be calculated in full when read
+	 */
+	private DayLog.Totals addExercise(DayLog.Totals totals, String name, double duration, int exerciseCount) {
+		if(totals == null || totals.version != getCatalogVersion()) {
+			return null;
+		}
+
+		double burnRate = 0.0;
+
+		if(exerciseCount > 0) {
+			Exercise exercise = eCollection.getExercise( name );
+			burnRate = totals.burnRate + (exercise == null ? 0.0 : exercise.getCaloriesPerHour() * (duration / 60.0));
+		}
+
+		return new DayLog.Totals( totals.version, totals.nutrients, burnRate );
+	}
+
+	/**
+	 * Returns a day's totals, calculating them again if foods or exercises changed since they were last calculated.
+	 * The day does not change, so this needs no lock.
+	 *
+	 * @param day
+	 * @return totals
+	 */
+	private DayLog.Totals getTotals(DayLog day) {
+		long version = getCatalogVersion();
+		DayLog.Totals totals = day.getTotals();
+
+		if(totals == null || totals.version != version) {
+			double[] nutrients = new double[IFood.NUTRIENT_COUNT];
+			double[] buffer = new double[IFood.NUTRIENT_COUNT]; // Buffer for IFood.getNutrients()
+			double burnRate = 0.0;
+
+			for(int i=0; i<day.getFoodCount(); i++) {
+				IFood food = fCollection.getFood( day.getFoodName(i) );
+				if(food != null) {
+					food.getNutrients( buffer );
+					for(int j=0; j<IFood.NUTRIENT_COUNT; j++) {
+						nutrients[j] += buffer[j] * day.getFoodServings(i);
 					}
 				}
 			}
+
+			for(int i=0; i<day.getExerciseCount(); i++) {
+				Exercise exercise = eCollection.getExercise( day.getExerciseName(i) );
+				if(exercise != null) {
+					burnRate += exercise.getCaloriesPerHour() * (day.getExerciseDuration(i) / 60.0);
+				}
+			}
+
+			totals = new DayLog.Totals( version, nutrients, burnRate );
+			day.setTotals( totals );
 		}
 
-		return "Null";
+		return totals;
 	}
 
 	/**
-	 * Gets the list of food by serving for the day, refer to loggedFoods
+	 * Gets the calories and nutrients consumed on a day
 	 *
 	 * @param date
-	 * @return List of food, serving
+	 * @return totals in format: [calories, fat, carb, protein]
 	 */
-	public List<String> getFoodLog(String date) {
-		return loggedFoods.get( date );
+	public double[] getConsumedTotals(String date) {
+		return getConsumedTotals( find(date) );
+	}
+
+	/**
+	 * Gets the calories and nutrients consumed on a day
+	 *
+	 * @param day a DayLog of this collection, may be null
+	 * @return totals in format: [calories, fat, carb, protein]
+	 */
+	public double[] getConsumedTotals(DayLog day) {
+		return day == null ? new double[IFood.NUTRIENT_COUNT] : getTotals( day ).nutrients.clone();
 	}
 
 	/**
-	 * Gets the list of exercises by serving for the day, refer to loggedExercises
+	 * Gets the calories burned on a day, using the day's weight or DEFAULT_WEIGHT
 	 *
 	 * @param date
-	 * @return List of food, serving
+	 * @return burned calories
 	 */
-	public List<String> getExerciseLog(String date) {
-		return loggedExercises.get( date );
+	public double getBurnedCalories(String date) {
+		return getBurnedCalories( find(date) );
 	}
 
 	/**
-	 * Gets the weight for the day
+	 * Gets the calories burned on a day, using the day's weight or DEFAULT_WEIGHT
+	 *
+	 * @param day a DayLog of this collection, may be null
+	 * @return burned calories
+	 */
+	public double getBurnedCalories(DayLog day) {
+		if(day == null) {
+			return 0.0;
+		}
+
+		double weight = Double.isNaN( day.getWeight() ) ? DEFAULT_WEIGHT : day.getWeight();
+		return getTotals( day ).burnRate * (weight / 100.0);
+	}
+
+	/**
+	 * Gets everything logged for the day
 	 *
 	 * @param date
-	 * @return Weight
+	 * @return DayLog or null if nothing was logged
 	 */
-	public Double getWeight(String date) {
-		return loggedWeights.get( date );
+	public DayLog getDay(String date) {
+		return find( date );
 	}
 
 	/**
-	 * Gets the calorie limit for the day
+	 * Gets everything logged for the day
+	 *
+	 * @param epochDay
+	 * @return DayLog or null if nothing was logged
+	 */
+	public DayLog getDay(long epochDay) {
+		return snapshot.getDay( epochDay );
+	}
+
+	/**
+	 * Gets everything logged between two dates with one ordered scan of the date index
+	 *
+	 * @param from first date in yyyy-mm-dd format, inclusive
+	 * @param to last date in yyyy-mm-dd format, inclusive
+	 * @return List of DayLogs in date order, days without logs are left out
+	 * @throws IllegalArgumentException if a date is not valid
+	 */
+	public List<DayLog> getDays(String from, String to) {
+		return getDays( toEpochDay(from), toEpochDay(to) );
+	}
+
+	/**
+	 * Gets everything logged between two epoch days with one ordered scan of the date index
+	 *
+	 * @param from first epoch day, inclusive
+	 * @param to last epoch day, inclusive
+	 * @return List of DayLogs in date order, days without logs are left out
+	 */
+	public List<DayLog> getDays(long from, long to) {
+		return snapshot.getDays( from, to );
+	}
+
+	/**
+	 * Returns the number of days with a DayLog, use getSnapshot() to go through the days while they may change
+	 *
+	 * @return int
+	 */
+	public int getDayCount() {
+		return snapshot.getDayCount();
+	}
+
+	/**
+	 * Returns the epoch day of the i-th day with a DayLog, in date order
+	 *
+	 * @param i 0 to getDayCount()-1
+	 * @return epoch day
+	 */
+	public long getEpochDay(int i) {
+		return snapshot.getEpochDay( i );
+	}
+
+	/**
+	 * Returns the DayLog of the i-th day with a DayLog, in date order
+	 *
+	 * @param i 0 to getDayCount()-1
+	 * @return DayLog
+	 */
+	public DayLog getDayAt(int i) {
+		return snapshot.getDayAt( i );
+	}
+
+	/**
+	 * Returns the name with the given id, see DayLog.getFoodId() and DayLog.getExerciseId()
+	 *
+	 * @param id
+	 * @return String
+	 */
+	public String getName(int id) {
+		return names.getName( id );
+	}
+
+	/**
+	 * Gets the logged foods for the day
 	 *
 	 * @param date
-	 * @return Calorie limit
+	 * @return List of entries, empty if no food was logged
 	 */
-	public Double getDesiredCalories(String date) {
-		return loggedCaloriesLimit.get( date );
+	public List<LogEntry> getFoodEntries(String date) {
+		DayLog day = find( date );
+		List<LogEntry> entries = new ArrayList<>();
+
+		if(day != null) {
+			for(int i=0; i<day.getFoodCount(); i++) {
+				entries.add( new LogEntry( day.getFoodName(i), day.getFoodServings(i) ) );
+			}
+		}
+
+		return entries;
 	}
 
 	/**
-	 * Returns all dates and logged foods
+	 * Gets the logged exercises for the day
 	 *
-	 * @return
+	 * @param date
+	 * @return List of entries, empty if no exercise was logged
 	 */
-	public Map<String, List<String>> getFoodLogCollection() {
-		return this.loggedFoods;
+	public List<LogEntry> getExerciseEntries(String date) {
+		DayLog day = find( date );
+		List<LogEntry> entries = new ArrayList<>();
+
+		if(day != null) {
+			for(int i=0; i<day.getExerciseCount(); i++) {
+				entries.add( new LogEntry( day.getExerciseName(i), day.getExerciseDuration(i) ) );
+			}
+		}
+
+		return entries;
 	}
 
 	/**
-	 * Returns all dates and logged exercises
+	 * Gets the list of food by serving for the day, ie.) [ "hot dog", "1.5", "coffee", "2.5" ]
 	 *
-	 * @return
+	 * @param date
+	 * @return List of food, serving or null if no food was logged
 	 */
-	public Map<String, List<String>> getExerciseLogCollection() {
-		return this.loggedExercises;
+	public List<String> getFoodLog(String date) {
+		DayLog day = find( date );
+
+		if(day == null || day.getFoodCount() == 0) {
+			return null;
+		}
+
+		List<String> foodByServing = new ArrayList<>();
+		for(int i=0; i<day.getFoodCount(); i++) {
+			foodByServing.add( day.getFoodName(i) );
+			foodByServing.add( Double.toString( day.getFoodServings(i) ) );
+		}
+
+		return foodByServing;
 	}
 
 	/**
-	 * Returns all dates and weights
+	 * Gets the list of exercises by duration for the day, ie.) [ "gardening", "30.0", "jogging (5 mph)", "25.0" ]
 	 *
-	 * @return
+	 * @param date
+	 * @return List of exercise, duration or null if no exercise was logged
+	 */
+	public List<String> getExerciseLog(String date) {
+		DayLog day = find( date );
+
+		if(day == null || day.getExerciseCount() == 0) {
+			return null;
+		}
+
+		List<String> exerciseByDuration = new ArrayList<>();
+		for(int i=0; i<day.getExerciseCount(); i++) {
+			exerciseByDuration.add( day.getExerciseName(i) );
+			exerciseByDuration.add( Double.toString( day.getExerciseDuration(i) ) );
+		}
+
+		return exerciseByDuration;
+	}
+
+	/**
+	 * Gets the weight for the day
+	 *
+	 * @param date
+	 * @return Weight
 	 */
-	public Map<String, Double> getWeightLogCollection() {
-		return this.loggedWeights;
+	public Double getWeight(String date) {
+		DayLog day = find( date );
+		return day == null || Double.isNaN(day.getWeight()) ? null : day.getWeight();
 	}
 
 	/**
-	 * Returns all dates and calories
+	 * Gets the calorie limit for the day
 	 *
-	 * @return
+	 * @param date
+	 * @return Calorie limit
 	 */
-	public Map<String, Double> getCalorieLogCollection() {
-		return this.loggedCaloriesLimit;
+	public Double getDesiredCalories(String date) {
+		DayLog day = find( date );
+		return day == null || Double.isNaN(day.getCalorieLimit()) ? null : day.getCalorieLimit();
 	}
 }
@@ -0,0 +1,39 @@
+package model.log;
+
+/**
+ * A logged food with its servings or a logged exercise with its duration in minutes
+ *
+ * @author Team A
+ */
+public class LogEntry {
+	private String name;
+	private double amount;
+
+	public LogEntry(String name, double amount) {
+		this.name = name;
+		this.amount = amount;
+	}
+
+	/**
+	 * Returns the name of the food or exercise
+	 *
+	 * @return String
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the servings of a food or the duration of an exercise
+	 *
+	 * @return double
+	 */
+	public double getAmount() {
+		return amount;
+	}
+
+	@Override
+	public String toString() {
+		return name + "," + amount;
+	}
+}
@@ -0,0 +1,120 @@
+package model.log;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The days of a LogCollection as they were at one version. Nothing in a snapshot changes: later changes to the
+ * collection publish a new snapshot, which shares the DayLogs of the days that did not change.
+ *
+ * Reading several values from one snapshot gives a consistent view without locking, ie.) the graphs of a day or a
+ * report over a date range while the CLI keeps logging.
+ *
+ * @author Team A
+ */
+public class LogSnapshot {
+	private final long version;
+	private final long[] keys; // Sorted epoch days, only the first size are part of this snapshot
+	private final DayLog[] days;
+	private final int size;
+
+	LogSnapshot(long version, long[] keys, DayLog[] days, int size) {
+		this.version = version;
+		this.keys = keys;
+		this.days = days;
+		this.size = size;
+	}
+
+	/**
+	 * Returns the version, every published change to the LogCollection increases it
+	 *
+	 * @return long
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns the number of days with a DayLog
+	 *
+	 * @return int
+	 */
+	public int getDayCount() {
+		return size;
+	}
+
+	/**
+	 * Returns the epoch day of the i-th day with a DayLog, in date order
+	 *
+	 * @param i 0 to getDayCount()-1
+	 * @return epoch day
+	 */
+	public long getEpochDay(int i) {
+		checkIndex( i );
+		return keys[i];
+	}
+
+	/**
+	 * Returns the DayLog of the i-th day with a DayLog, in date order
+	 *
+	 * @param i 0 to getDayCount()-1
+	 * @return DayLog
+	 */
+	public DayLog getDayAt(int i) {
+		checkIndex( i );
+		return days[i];
+	}
+
+	/**
+	 * Gets everything logged for the day
+	 *
+	 * @param epochDay
+	 * @return DayLog or null if nothing was logged
+	 */
+	public DayLog getDay(long epochDay) {
+		int i = DayIndex.indexOf( keys, size, epochDay );
+		return i >= 0 ? days[i] : null;
+	}
+
+	/**
+	 * Gets everything logged for the day
+	 *
+	 * @param date
+	 * @return DayLog or null if nothing was logged or the date is not valid
+	 */
+	public DayLog getDay(String date) {
+		try {
+			return getDay( LogCollection.toEpochDay(date) );
+		}
+		catch(IllegalArgumentException iae) {
+			return null;
+		}
+	}
+
+	/**
+	 * Gets everything logged between two epoch days with one ordered scan of the date index
+	 *
+	 * @param from first epoch day, inclusive
+	 * @param to last epoch day, inclusive
+	 * @return List of DayLogs in date order, days without logs are left out
+	 */
+	public List<DayLog> getDays(long from, long to) {
+		int first = ceilingIndex( from );
+		int last = to == Long.MAX_VALUE ? size : ceilingIndex( to + 1 );
+
+		return first < last ? Collections.unmodifiableList( Arrays.asList(days).subList(first, last) ) : Collections.<DayLog>emptyList();
+	}
+
+	private int ceilingIndex(long key) {
+		int i = DayIndex.indexOf( keys, size, key );
+		return i >= 0 ? i : -(i + 1);
+	}
+
+	private void checkIndex(int i) {
+		// The arrays can be longer than the snapshot
+		if(i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException( "Day " + i + " of " + size );
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package model.log;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives every food and exercise name that appears in the logs a small int id, so each name is stored once
+ *
+ * Lookups do not lock. A new name is stored in the names array before its id is put in the map, so any id a reader
+ * can get already has its name.
+ *
+ * @author Team A
+ */
+class NameTable {
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final Map<String, Integer> ids;
+	private volatile String[] names; // Written again after every add to publish the new name
+	private int size;
+
+	NameTable() {
+		this.ids = new ConcurrentHashMap<>();
+		this.names = new String[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Returns the id of a name, adding the name if it is new
+	 *
+	 * @param name
+	 * @return int
+	 */
+	int intern(String name) {
+		Integer id = ids.get( name );
+		return id != null ? id : add( name );
+	}
+
+	private synchronized int add(String name) {
+		// Added by another thread since the check in intern()
+		Integer id = ids.get( name );
+		if(id != null) {
+			return id;
+		}
+
+		String[] n = names;
+		if(size == n.length) {
+			n = Arrays.copyOf( n, size * 2 );
+		}
+
+		n[size] = name;
+		names = n;
+		ids.put( name, size );
+
+		return size++;
+	}
+
+	/**
+	 * Returns the id of a name
+	 *
+	 * @param name
+	 * @return id or -1 if the name was never logged
+	 */
+	int getId(String name) {
+		Integer id = ids.get( name );
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Returns the name with the given id
+	 *
+	 * @param id
+	 * @return String
+	 */
+	String getName(int id) {
+		return names[id];
+	}
+}
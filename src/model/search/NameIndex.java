@@ -0,0 +1,182 @@
+package model.search;
+
+import java.util.*;
+
+/**
+ * Keeps the keys of a collection sorted by their lower case form, so the keys starting with what the user typed can
+ * be found with a binary search instead of going through the whole collection.
+ *
+ * While a collection is being loaded keys are only appended, the array is sorted once when it is first searched.
+ * After that new keys are inserted at their place. Adding and searching are synchronized.
+ *
+ * @author Team A
+ */
+public class NameIndex {
+	private String[] lowerKeys = new String[64]; // ie.) "hot dog"
+	private String[] keys = new String[64]; // ie.) "Hot Dog"
+	private int size;
+	private boolean sorted = true;
+	private boolean searched; // Keys are inserted at their place once the index is in use
+
+	/**
+	 * Adds a key, must only be called for keys that are not in the index yet
+	 *
+	 * @param key
+	 */
+	public synchronized void add(String key) {
+		String lower = key.toLowerCase();
+
+		if(size == keys.length) {
+			keys = Arrays.copyOf( keys, size * 2 );
+			lowerKeys = Arrays.copyOf( lowerKeys, size * 2 );
+		}
+
+		int position = size;
+
+		if(sorted && size > 0 && compare(lower, key, size-1) < 0) {
+			if(searched) {
+				position = -(find(lower, key) + 1);
+				System.arraycopy( keys, position, keys, position+1, size-position );
+				System.arraycopy( lowerKeys, position, lowerKeys, position+1, size-position );
+			}
+			else {
+				// Appending while loading is cheap, sorting is left to the first search
+				sorted = false;
+			}
+		}
+
+		keys[position] = key;
+		lowerKeys[position] = lower;
+		size++;
+	}
+
+	/**
+	 * Finds the keys that start with a prefix, ignoring case
+	 *
+	 * @param prefix
+	 * @param limit the most keys to return
+	 * @return List of keys in alphabetical order
+	 */
+	public synchronized List<String> search(String prefix, int limit) {
+		sort();
+		searched = true;
+
+		String lower = prefix.toLowerCase();
+		List<String> matches = new ArrayList<>();
+
+		for(int i=lowerBound(lower); i<size && matches.size()<limit && lowerKeys[i].startsWith(lower); i++) {
+			matches.add( keys[i] );
+		}
+
+		return matches;
+	}
+
+	/**
+	 * Returns the number of keys
+	 *
+	 * @return int
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Sorts the keys that were appended since the last search
+	 */
+	private void sort() {
+		if(sorted) {
+			return;
+		}
+
+		// Sort pairs of both forms, then split them back up
+		String[][] pairs = new String[size][];
+		for(int i=0; i<size; i++) {
+			pairs[i] = new String[] { lowerKeys[i], keys[i] };
+		}
+
+		Arrays.sort(pairs, new Comparator<String[]>() {
+			@Override
+			public int compare(String[] a, String[] b) {
+				int c = a[0].compareTo( b[0] );
+				return c != 0 ? c : a[1].compareTo( b[1] );
+			}
+		});
+
+		String[] sortedKeys = new String[keys.length];
+		String[] sortedLowerKeys = new String[keys.length];
+		for(int i=0; i<size; i++) {
+			sortedLowerKeys[i] = pairs[i][0];
+			sortedKeys[i] = pairs[i][1];
+		}
+
+		keys = sortedKeys;
+		lowerKeys = sortedLowerKeys;
+		sorted = true;
+	}
+
+	/**
+	 * Returns the first position whose lower case key is not before the given one
+	 *
+	 * @param lower
+	 * @return int
+	 */
+	private int lowerBound(String lower) {
+		int low = 0;
+		int high = size;
+
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+
+			if(lowerKeys[mid].compareTo( lower ) < 0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * Binary search for a key in the sorted keys
+	 *
+	 * @param lower
+	 * @param key
+	 * @return position, or -(insertion point + 1) if it is not there
+	 */
+	private int find(String lower, String key) {
+		int low = 0;
+		int high = size - 1;
+
+		while(low <= high) {
+			int mid = (low + high) >>> 1;
+			int c = compare( lower, key, mid );
+
+			if(c > 0) {
+				low = mid + 1;
+			}
+			else if(c < 0) {
+				high = mid - 1;
+			}
+			else {
+				return mid;
+			}
+		}
+
+		return -(low + 1);
+	}
+
+	/**
+	 * Compares a key to the key at a position, by lower case form first
+	 *
+	 * @param lower
+	 * @param key
+	 * @param position
+	 * @return int
+	 */
+	private int compare(String lower, String key, int position) {
+		int c = lower.compareTo( lowerKeys[position] );
+		return c != 0 ? c : key.compareTo( keys[position] );
+	}
+}
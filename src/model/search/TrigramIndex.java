@@ -0,0 +1,151 @@
+package model.search;
+
+import java.util.*;
+
+/**
+ * Finds keys that look like a mistyped name, ie.) "chese piza" for "Cheese Pizza".
+ *
+ * Every key is split into the groups of three characters it contains, with its start and end marked, and each group
+ * keeps the ids of the keys that contain it. A search counts how many groups each key shares with the typed name and
+ * ranks the keys by how much of both they cover. Adding and searching are synchronized.
+ *
+ * @author Team A
+ */
+public class TrigramIndex {
+	private static final double MIN_SCORE = 0.3; // Keys sharing less than this are not similar enough to suggest
+
+	private Map<String, Postings> postings = new HashMap<>(); // ie.) "piz" -> ids of keys containing "piz"
+	private String[] keys = new String[64];
+	private int[] gramCounts = new int[64]; // Number of distinct groups of each key
+	private int size;
+
+	// Reused by every search, so a search only costs as much as the keys it touches. shared is all zero between searches.
+	private int[] shared = new int[64]; // Groups each key has in common with the name being searched
+	private int[] touched = new int[16]; // Ids of the keys that share at least one group
+
+	/**
+	 * Adds a key, must only be called for keys that are not in the index yet
+	 *
+	 * @param key
+	 */
+	public synchronized void add(String key) {
+		if(size == keys.length) {
+			keys = Arrays.copyOf( keys, size * 2 );
+			gramCounts = Arrays.copyOf( gramCounts, size * 2 );
+			shared = Arrays.copyOf( shared, size * 2 );
+		}
+
+		Set<String> grams = trigrams( key );
+		for(String gram : grams) {
+			Postings p = postings.get( gram );
+
+			if(p == null) {
+				p = new Postings();
+				postings.put( gram, p );
+			}
+
+			p.add( size );
+		}
+
+		keys[size] = key;
+		gramCounts[size] = grams.size();
+		size++;
+	}
+
+	/**
+	 * Finds the keys most similar to a name
+	 *
+	 * @param name
+	 * @param limit the most keys to return
+	 * @return List of keys, most similar first
+	 */
+	public synchronized List<String> search(String name, int limit) {
+		Set<String> grams = trigrams( name );
+		int touchedCount = 0;
+
+		// Count the groups each key has in common with the name
+		for(String gram : grams) {
+			Postings p = postings.get( gram );
+			if(p == null) {
+				continue;
+			}
+
+			for(int i=0; i<p.size; i++) {
+				int id = p.ids[i];
+
+				if(shared[id]++ == 0) {
+					if(touchedCount == touched.length) {
+						touched = Arrays.copyOf( touched, touchedCount * 2 );
+					}
+					touched[touchedCount++] = id;
+				}
+			}
+		}
+
+		// Keep the best matches, ranked by the Dice coefficient of the two sets of groups
+		final int[] ids = new int[touchedCount];
+		final double[] scores = new double[touchedCount];
+		Integer[] order = new Integer[touchedCount]; // Positions in ids and scores
+		int matches = 0;
+
+		for(int i=0; i<touchedCount; i++) {
+			int id = touched[i];
+			double score = 2.0 * shared[id] / (grams.size() + gramCounts[id]);
+			shared[id] = 0; // Ready for the next search
+
+			if(score >= MIN_SCORE) {
+				ids[matches] = id;
+				scores[matches] = score;
+				order[matches] = matches;
+				matches++;
+			}
+		}
+
+		Arrays.sort(order, 0, matches, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				int c = Double.compare( scores[b], scores[a] );
+				return c != 0 ? c : keys[ids[a]].compareTo( keys[ids[b]] );
+			}
+		});
+
+		List<String> result = new ArrayList<>();
+		for(int i=0; i<matches && i<limit; i++) {
+			result.add( keys[ids[order[i]]] );
+		}
+
+		return result;
+	}
+
+	/**
+	 * Splits a name into its distinct groups of three characters, ignoring case and extra spaces
+	 *
+	 * @param name
+	 * @return Set of groups, ie.) "tea" -> [ "  t", " te", "tea", "ea " ]
+	 */
+	private static Set<String> trigrams(String name) {
+		String padded = "  " + name.toLowerCase().trim().replaceAll( "\\s+", " " ) + " ";
+		Set<String> grams = new HashSet<>();
+
+		for(int i=0; i+3<=padded.length(); i++) {
+			grams.add( padded.substring(i, i+3) );
+		}
+
+		return grams;
+	}
+
+	/**
+	 * Ids of the keys that contain a group
+	 */
+	private static class Postings {
+		private int[] ids = new int[4];
+		private int size;
+
+		void add(int id) {
+			if(size == ids.length) {
+				ids = Arrays.copyOf( ids, size * 2 );
+			}
+			ids[size++] = id;
+		}
+	}
+}
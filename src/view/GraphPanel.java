@@ -58,6 +58,7 @@ public class GraphPanel {
 		bc.setTitle(title);
 		bc.getData().addAll(this.data);
 		bc.setLegendVisible(false);
+		bc.setAnimated(false); // The bar titles change with every update, animating them left old bars behind
 
 		return bc;
 	}
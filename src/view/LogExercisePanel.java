@@ -2,17 +2,18 @@ package view;
 
 import controller.LogController;
 import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import model.ChangeEvent;
 import model.exercise.ExerciseCollection;
 import model.food.FoodCollection;
 import model.log.LogCollection;
 
-import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.FlowPane;
-import java.util.ArrayList;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.List;
@@ -23,12 +24,17 @@ import java.util.List;
  * @author Team A
  */
 public class LogExercisePanel extends FlowPane implements EventHandler<ActionEvent>, Observer {
+	private static final int MAX_SUGGESTIONS = 100; // Most exercises listed in the ComboBox at a time
+	private static final int MAX_SIMILAR = 10; // Most exercises listed when the entered text looks mistyped
+
 	private LogController lController;
 
 	private TextField tfDuration;
 
 	private Button btnLog, btnDelete, btnList;
-	private ComboBox cbExercises;
+	private ComboBox cbExercises; // Typing narrows it down to the exercises starting with the text
+	private NameListModel exercises; // Items of cbExercises
+	private boolean filtering; // Set while the ComboBox items are replaced, so the editor changes that causes are ignored
 
 	private NutritionTrackerPanel nPanel;
 
@@ -45,9 +51,32 @@ public class LogExercisePanel extends FlowPane implements EventHandler<ActionEve
 		e.addObserver(this);
 
 		// Create exercise combo box
-		this.cbExercises = new ComboBox();
+		this.exercises = new NameListModel( MAX_SUGGESTIONS, MAX_SIMILAR ) {
+			@Override
+			protected List<String> search(String prefix, int limit) {
+				return lController.searchExerciseData( prefix, limit );
+			}
+
+			@Override
+			protected List<String> suggest(String name, int limit) {
+				return lController.suggestExerciseData( name, limit );
+			}
+		};
+		this.cbExercises = new ComboBox( exercises.getItems() );
+		this.cbExercises.setEditable( true );
+		this.cbExercises.setPromptText( "-- Select an Exercise --" );
 		this.populateComboBox();
 
+		// Type-ahead
+		this.cbExercises.getEditor().textProperty().addListener(new ChangeListener<String>() {
+			@Override
+			public void changed(ObservableValue<? extends String> observable, String oldText, String text) {
+				if(!filtering) {
+					populateComboBox();
+				}
+			}
+		});
+
 		// Create duration text field
 		this.tfDuration = createTextField( tfDuration, "Duration - ie.) 1.0" );
 
@@ -69,13 +98,25 @@ public class LogExercisePanel extends FlowPane implements EventHandler<ActionEve
 	 * Updates the UI
 	 *
 	 * @param o
-	 * @param obj
+	 * @param obj ChangeEvent of the exercise that was added or replaced
 	 */
 	@Override
 	public void update(Observable o, Object obj) {
+		final ChangeEvent event = (ChangeEvent) obj;
+
+		// Replacing an exercise does not change its name
+		if(event.getKind() == ChangeEvent.Kind.REPLACED) {
+			return;
+		}
+
 		Platform.runLater(new Runnable() {
 			public void run() {
-				populateComboBox();
+				if(event.getKind() == ChangeEvent.Kind.BULK) {
+					exercises.reload();
+				}
+				else {
+					exercises.added( lController.getExerciseName(event.getKey()) );
+				}
 			}
 		});
 	}
@@ -107,16 +148,36 @@ public class LogExercisePanel extends FlowPane implements EventHandler<ActionEve
 	}
 
 	/**
-	 * Creates a ComboBox of all foods in FoodCollection
+	 * Filters the ComboBox down to the exercises in ExerciseCollection that start with the entered text, or are
+	 * spelled like it
 	 *
 	 * @return
 	 */
 	private void populateComboBox() {
-		ArrayList<String> exerciseNames = (ArrayList<String>)lController.getExerciseData();
-		exerciseNames.add(0, "-- Select an Exercise --");
+		String text = cbExercises.getEditor().getText() == null ? "" : cbExercises.getEditor().getText();
+
+		// Changing the items can reset the editor, so put back what was typed
+		filtering = true;
+		boolean changed = exercises.setFilter( text );
+		if(changed) {
+			this.cbExercises.getEditor().setText( text );
+			this.cbExercises.getEditor().positionCaret( text.length() );
+		}
+		filtering = false;
+
+		if(changed && cbExercises.getEditor().isFocused() && !exercises.getItems().isEmpty()) {
+			this.cbExercises.show();
+		}
+	}
 
-		this.cbExercises.setItems( FXCollections.observableList( exerciseNames ) );
-		this.cbExercises.getSelectionModel().select(0);
+	/**
+	 * Returns the entered exercise name
+	 *
+	 * @return String
+	 */
+	private String getEnteredName() {
+		String name = cbExercises.getEditor().getText();
+		return name == null ? "" : name.trim();
 	}
 
 	/**
@@ -162,13 +223,10 @@ public class LogExercisePanel extends FlowPane implements EventHandler<ActionEve
 		String date = nPanel.getCurrDate();
 
 		// Get exercise
-		String name = "";
-		if(cbExercises.valueProperty().getValue() != null) {
-			name = cbExercises.valueProperty().getValue().toString();
-		}
+		String name = getEnteredName();
 
 		// Check for default
-		if(name.equals("-- Select an Exercise --")) {
+		if(name.equals("")) {
 			createAlert(Alert.AlertType.WARNING, "Please choose an exercise to log!").showAndWait();
 			return;
 		}
@@ -217,10 +275,7 @@ public class LogExercisePanel extends FlowPane implements EventHandler<ActionEve
 		String date = nPanel.getCurrDate();
 
 		// Get exercise
-		String name = "";
-		if(cbExercises.valueProperty().getValue() != null) {
-			name = cbExercises.valueProperty().getValue().toString();
-		}
+		String name = getEnteredName();
 
 		// Get duration
 		String duration = tfDuration.getText().trim();
@@ -2,11 +2,13 @@ package view;
 
 import controller.LogController;
 import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import model.ChangeEvent;
 import model.exercise.ExerciseCollection;
 import model.food.FoodCollection;
 import model.log.LogCollection;
 
-import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.scene.control.*;
@@ -15,7 +17,6 @@ import javafx.scene.control.TextField;
 import javafx.scene.layout.*;
 import javafx.scene.control.Alert.*;
 import javafx.geometry.*;
-import java.util.ArrayList;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.List;
@@ -26,11 +27,16 @@ import java.util.List;
  * @author Team A
  */
 public class LogFoodPanel extends FlowPane implements EventHandler<ActionEvent>, Observer {
+   private static final int MAX_SUGGESTIONS = 100; // Most foods listed in the ComboBox at a time
+   private static final int MAX_SIMILAR = 10; // Most foods listed when the entered text looks mistyped
+
    private LogController lController;
 
    private TextField tfServings;
    private Button btnLog, btnDelete, btnList;
-   private ComboBox cbFoods; // Think HTML select of foods from model
+   private ComboBox cbFoods; // Think HTML select of foods from model, typing narrows it down to the foods starting with the text
+   private NameListModel foods; // Items of cbFoods
+   private boolean filtering; // Set while the ComboBox items are replaced, so the editor changes that causes are ignored
 
    private NutritionTrackerPanel nPanel;
 
@@ -53,8 +59,31 @@ public class LogFoodPanel extends FlowPane implements EventHandler<ActionEvent>,
       this.btnList = this.createButton( btnList, "Logged Foods" );
    
    	  // Creates ComboBox (HTML Select)
-      this.cbFoods = new ComboBox();
+      this.foods = new NameListModel( MAX_SUGGESTIONS, MAX_SIMILAR ) {
+         @Override
+         protected List<String> search(String prefix, int limit) {
+            return lController.searchFoodData( prefix, limit );
+         }
+
+         @Override
+         protected List<String> suggest(String name, int limit) {
+            return lController.suggestFoodData( name, limit );
+         }
+      };
+      this.cbFoods = new ComboBox( foods.getItems() );
+      this.cbFoods.setEditable( true );
+      this.cbFoods.setPromptText( "-- Select a Food --" );
       this.populateComboBox();
+
+      // Type-ahead
+      this.cbFoods.getEditor().textProperty().addListener(new ChangeListener<String>() {
+         @Override
+         public void changed(ObservableValue<? extends String> observable, String oldText, String text) {
+            if(!filtering) {
+               populateComboBox();
+            }
+         }
+      });
    
    	  // Add components
       this.getChildren().addAll(
@@ -70,13 +99,25 @@ public class LogFoodPanel extends FlowPane implements EventHandler<ActionEvent>,
     * Updates the UI
     *
     * @param o
-    * @param obj
+    * @param obj ChangeEvent of the food that was added or replaced
     */
    @Override
    public void update(Observable o, Object obj) {
+      final ChangeEvent event = (ChangeEvent) obj;
+
+      // Replacing a food does not change its name
+      if(event.getKind() == ChangeEvent.Kind.REPLACED) {
+         return;
+      }
+
       Platform.runLater(new Runnable() {
          public void run() {
-            populateComboBox();
+            if(event.getKind() == ChangeEvent.Kind.BULK) {
+               foods.reload();
+            }
+            else {
+               foods.added( lController.getFoodName(event.getKey()) );
+            }
          }
       });
    }
@@ -108,15 +149,35 @@ public class LogFoodPanel extends FlowPane implements EventHandler<ActionEvent>,
    }
 
    /**
-    * Creates a ComboBox of all foods in FoodCollection
+    * Filters the ComboBox down to the foods in FoodCollection that start with the entered text, or are spelled like it
     *
     * @return
     */
    private void populateComboBox() {
-      ArrayList<String> foodNames = (ArrayList<String>)lController.getFoodData();
-      foodNames.add(0, "-- Select a Food --");
-      this.cbFoods.setItems( FXCollections.observableList( foodNames ) );
-      this.cbFoods.getSelectionModel().select(0);
+      String text = cbFoods.getEditor().getText() == null ? "" : cbFoods.getEditor().getText();
+
+      // Changing the items can reset the editor, so put back what was typed
+      filtering = true;
+      boolean changed = foods.setFilter( text );
+      if(changed) {
+         this.cbFoods.getEditor().setText( text );
+         this.cbFoods.getEditor().positionCaret( text.length() );
+      }
+      filtering = false;
+
+      if(changed && cbFoods.getEditor().isFocused() && !foods.getItems().isEmpty()) {
+         this.cbFoods.show();
+      }
+   }
+
+   /**
+    * Returns the entered food name
+    *
+    * @return String
+    */
+   private String getEnteredName() {
+      String name = cbFoods.getEditor().getText();
+      return name == null ? "" : name.trim();
    }
 
    /**
@@ -162,13 +223,10 @@ public class LogFoodPanel extends FlowPane implements EventHandler<ActionEvent>,
       String date = nPanel.getCurrDate();
    
    	  // Get entered food name
-      String name = "";
-      if(cbFoods.valueProperty().getValue() != null) {
-         name = cbFoods.valueProperty().getValue().toString();
-      }
+      String name = getEnteredName();
 
       // Check for default
-      if(name.equals("-- Select a Food --")) {
+      if(name.equals("")) {
          createAlert(Alert.AlertType.WARNING, "Please choose a food to log!").showAndWait();
          return;
       }
@@ -217,10 +275,7 @@ public class LogFoodPanel extends FlowPane implements EventHandler<ActionEvent>,
       String date = nPanel.getCurrDate();
    
    	  // Get entered food name
-      String name = "";
-      if(cbFoods.valueProperty().getValue() != null) {
-         name = cbFoods.valueProperty().getValue().toString();
-      };
+      String name = getEnteredName();
    
    	  // Get entered servings
       String servings = tfServings.getText().trim();
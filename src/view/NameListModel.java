@@ -0,0 +1,179 @@
+package view;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.List;
+
+/**
+ * The items of a type-ahead ComboBox: the names starting with the entered text, in alphabetical order, up to a limit.
+ *
+ * The list is only rebuilt when the text changes. A name added to the collection is inserted at its place, so the
+ * ComboBox only has to show the one new row instead of every name being copied and the items reset.
+ * When nothing starts with the text, the names spelled most like it are listed instead.
+ *
+ * @author Team A
+ */
+public abstract class NameListModel {
+	private ObservableList<String> items = FXCollections.observableArrayList();
+	private String filter; // Lower case text the items start with, null until the first setFilter()
+	private int limit;
+	private int similarLimit;
+	private boolean complete; // Every name starting with the filter is in the items
+	private boolean similar; // The items are names spelled like the filter instead
+
+	public NameListModel(int limit, int similarLimit) {
+		this.limit = limit;
+		this.similarLimit = similarLimit;
+	}
+
+	/**
+	 * Finds the names that start with a prefix, see LogController.searchFoodData()
+	 *
+	 * @param prefix
+	 * @param limit
+	 * @return List of names in alphabetical order
+	 */
+	protected abstract List<String> search(String prefix, int limit);
+
+	/**
+	 * Finds the names spelled most like a mistyped name, see LogController.suggestFoodData()
+	 *
+	 * @param name
+	 * @param limit
+	 * @return List of names, most similar first
+	 */
+	protected abstract List<String> suggest(String name, int limit);
+
+	/**
+	 * Returns the list to give to the ComboBox, it is changed in place
+	 *
+	 * @return ObservableList
+	 */
+	public ObservableList<String> getItems() {
+		return items;
+	}
+
+	/**
+	 * Lists the names that start with the entered text
+	 *
+	 * @param text
+	 * @return true if the items changed
+	 */
+	public boolean setFilter(String text) {
+		String lower = text == null ? "" : text.trim().toLowerCase();
+
+		if(lower.equals( filter )) {
+			return false;
+		}
+
+		filter = lower;
+		refresh();
+		return true;
+	}
+
+	/**
+	 * Lists the names for the current filter again, ie.) after many names were added at once
+	 */
+	public void reload() {
+		if(filter != null) {
+			refresh();
+		}
+	}
+
+	/**
+	 * Adds a name that was added to the collection, unless it is already listed
+	 *
+	 * @param name
+	 */
+	public void added(String name) {
+		if(filter == null || name == null) {
+			return;
+		}
+
+		// Any new name could be a better suggestion, and there are only a few of those
+		if(similar) {
+			refresh();
+			return;
+		}
+
+		String lower = name.toLowerCase();
+		if(!lower.startsWith( filter )) {
+			return;
+		}
+
+		int position = find( lower, name );
+		if(position >= 0) {
+			return;
+		}
+
+		position = -(position + 1);
+
+		// Names after the last listed one are not shown until the list is filtered further
+		if(position == items.size() && !complete) {
+			return;
+		}
+
+		items.add( position, name );
+
+		if(items.size() > limit) {
+			items.remove( limit );
+			complete = false;
+		}
+	}
+
+	/**
+	 * Rebuilds the items for the current filter
+	 */
+	private void refresh() {
+		List<String> names = search( filter, limit + 1 );
+
+		complete = names.size() <= limit;
+		similar = false;
+		if(!complete) {
+			names = names.subList( 0, limit );
+		}
+
+		// Nothing starts with the text, so offer the names spelled like it instead
+		if(names.isEmpty() && filter.length() >= 3) {
+			names = suggest( filter, similarLimit );
+			similar = true;
+		}
+
+		items.setAll( names );
+	}
+
+	/**
+	 * Binary search for a name in the items, by lower case form first
+	 *
+	 * @param lower
+	 * @param name
+	 * @return position, or -(insertion point + 1) if it is not there
+	 */
+	private int find(String lower, String name) {
+		int low = 0;
+		int high = items.size() - 1;
+
+		while(low <= high) {
+			int mid = (low + high) >>> 1;
+			String item = items.get( mid );
+			int c = lower.compareTo( item.toLowerCase() );
+
+			if(c == 0) {
+				c = name.compareTo( item );
+			}
+
+			if(c > 0) {
+				low = mid + 1;
+			}
+			else if(c < 0) {
+				high = mid - 1;
+			}
+			else {
+				return mid;
+			}
+		}
+
+		return -(low + 1);
+	}
+}
@@ -1,11 +1,14 @@
 package view;
 
 import controller.NutritionTrackerController;
+import model.ChangeEvent;
 import model.exercise.ExerciseCollection;
 import model.food.FoodCollection;
+import model.log.DayLog;
 import model.log.LogCollection;
 
-import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.scene.chart.BarChart;
 import javafx.scene.control.*;
 import javafx.event.ActionEvent;
@@ -24,6 +27,7 @@ public class NutritionTrackerPanel extends FlowPane implements EventHandler<Acti
 	private NutritionTrackerController nController;
 
 	private DatePicker dp;
+	private volatile String selectedDate; // The date of dp, which update() reads on the ModelWriter thread
 	private Button btnLoad;
 	private Label lblDate, lblWeight, lblCalories;
 	public TextField tfWeight, tfCalories;
@@ -31,6 +35,7 @@ public class NutritionTrackerPanel extends FlowPane implements EventHandler<Acti
 
 	private GraphPanel nutrientGraph;
 	private GraphPanel calorieGraph;
+	private RefreshCoalescer graphRefresh; // Redraws the graphs once for a burst of log changes
 
 	public NutritionTrackerPanel(FoodCollection f, LogCollection l, ExerciseCollection e ) {
 		// Layout
@@ -43,6 +48,12 @@ public class NutritionTrackerPanel extends FlowPane implements EventHandler<Acti
 		// Create Date Selection
 		this.lblDate = new Label("Date" );
 		this.dp = new DatePicker( );
+		this.dp.valueProperty().addListener(new ChangeListener<LocalDate>() {
+			@Override
+			public void changed(ObservableValue<? extends LocalDate> observable, LocalDate oldValue, LocalDate newValue) {
+				selectedDate = newValue == null ? null : newValue.toString();
+			}
+		});
 		this.dp.setValue( LocalDate.now() );
 
 		// Create Load Button
@@ -71,6 +82,13 @@ public class NutritionTrackerPanel extends FlowPane implements EventHandler<Acti
 		this.nutrientGraph = new GraphPanel("Nutrients", "Grams", 3, "Total Nutrition Intake");
 		this.calorieGraph = new GraphPanel("Calorie Information", "Calories", 4, "Calorie Information");
 
+		this.graphRefresh = new RefreshCoalescer(new Runnable() {
+			@Override
+			public void run() {
+				updateGraphData();
+			}
+		});
+
 		//Add this as an observer of the Log Collection
 		l.addObserver(this);
 
@@ -90,32 +108,38 @@ public class NutritionTrackerPanel extends FlowPane implements EventHandler<Acti
 		);
 	}
 
+	/**
+	 * Updates the graphs when something logged for the selected date changes
+	 *
+	 * @param observable
+	 * @param o ChangeEvent of the log change
+	 */
 	@Override
 	public void update(Observable observable, Object o) {
-		Platform.runLater(new Runnable() { // MultiThreading
-			@Override
-			public void run() {
-				updateGraphData();
-			}
-		});
+		// Changes to other days do not show up in the graphs. Runs on the ModelWriter thread, so dp is not touched here
+		if(!((ChangeEvent) o).affects( selectedDate )) {
+			return;
+		}
+
+		graphRefresh.request(); // MultiThreading
 	}
 
 	/**
 	 * Updates the nutrient graph with current nutrient values
 	 */
 	public void updateGraphData(){
-		// Get date
-		String date = this.getCurrDate();
+		// Get the day once, so both graphs show the same version of it while the CLI keeps logging
+		DayLog day = nController.getDayLog( this.getCurrDate() );
 
 		// Get new nutrient data from the controller and update the graph
-		ArrayList<Double> nutrientValues = nController.calculateTotalConsumedNutrients( date );
+		ArrayList<Double> nutrientValues = nController.calculateTotalConsumedNutrients( day );
 
 		/**
 		 * Update Calorie Graph
 		 */
 		Double desiredCalories = Double.parseDouble(this.tfCalories.getText());
 		Double consumedCalories = nutrientValues.remove(0);
-		Double burnedCalories = nController.calculateBurnedCalories( date );
+		Double burnedCalories = nController.calculateBurnedCalories( day );
 		Double netCalories = consumedCalories - burnedCalories;
 
 		ArrayList<Double> calorieValues = new ArrayList<>();
@@ -158,6 +182,15 @@ public class NutritionTrackerPanel extends FlowPane implements EventHandler<Acti
 		this.nutrientGraph.updateBarChartValues(nutrientTitles, nutrientValues);
 	}
 
+	/**
+	 * Returns how often the graphs were redrawn for log changes
+	 *
+	 * @return RefreshCoalescer
+	 */
+	public RefreshCoalescer getGraphRefresh() {
+		return graphRefresh;
+	}
+
 	/**
 	 * Gets Nutrient bar chart from GraphPanel
 	 *
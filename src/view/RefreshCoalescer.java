@@ -0,0 +1,77 @@
+package view;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs a refresh of a view on the JavaFX thread once for a burst of model changes.
+ *
+ * Only one refresh is queued at a time: requests made while one is waiting to run are folded into it, so a CLI
+ * import of thousands of logs redraws the graphs once per pulse instead of once per log. A request made while the
+ * refresh is running queues the next one, so the last change is always shown.
+ *
+ * @author Team A
+ */
+public class RefreshCoalescer {
+	private Runnable refresh;
+	private AtomicBoolean pending = new AtomicBoolean(); // A refresh is queued and has not started yet
+
+	private AtomicLong requested = new AtomicLong();
+	private AtomicLong executed = new AtomicLong();
+
+	public RefreshCoalescer(Runnable refresh) {
+		this.refresh = refresh;
+	}
+
+	/**
+	 * Asks for a refresh, can be called from any thread
+	 */
+	public void request() {
+		requested.incrementAndGet();
+
+		if(pending.compareAndSet( false, true )) {
+			Platform.runLater(new Runnable() {
+				@Override
+				public void run() {
+					pending.set( false );
+					executed.incrementAndGet();
+					refresh.run();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Returns how many refreshes were asked for
+	 *
+	 * @return long
+	 */
+	public long getRequested() {
+		return requested.get();
+	}
+
+	/**
+	 * Returns how many refreshes ran
+	 *
+	 * @return long
+	 */
+	public long getExecuted() {
+		return executed.get();
+	}
+
+	/**
+	 * Returns how many requests were folded into another refresh
+	 *
+	 * @return long
+	 */
+	public long getCoalesced() {
+		return requested.get() - executed.get() - (pending.get() ? 1 : 0);
+	}
+
+	@Override
+	public String toString() {
+		return String.format( "%d refreshes requested, %d executed, %d coalesced", getRequested(), getExecuted(), getCoalesced() );
+	}
+}
@@ -0,0 +1,185 @@
+import controller.FoodController;
+import controller.ModelWriter;
+import model.food.*;
+
+import java.util.*;
+
+/**
+ * Checks and times the cached recipe nutrients on deeply nested recipes.
+ *
+ * Builds a chain of recipes where each level is made of the two levels below it, ie.) "level 5" is 1 serving of
+ * "level 4" and half a serving of "level 3", so a walk over the ingredients visits the bottom foods once per path and
+ * the number of paths grows with every level. Checks:
+ *   1.) Every level's nutrients equal a walk over its ingredients without any cache
+ *   2.) After a bottom basic food and then a middle recipe are replaced through FoodController with overwrite, the
+ *       levels above them equal the walk again and a chain built fresh with the new foods
+ *
+ * The servings are halves and the nutrients whole numbers, so every sum is exact and the values must match exactly.
+ *
+ * Run from the project root after compiling src and test: java -cp out RecipeCacheTest [levels] [rounds]
+ * Exits with 0 when every check passed, else prints the first differences and exits with 1.
+ *
+ * @author Team A
+ */
+public class RecipeCacheTest {
+	private static final int MAX_REPORTED = 10; // Differences printed in full
+
+	private static int differences;
+
+	public static void main(String[] args) {
+		int levels = args.length > 0 ? Integer.parseInt( args[0] ) : 26;
+		int rounds = args.length > 1 ? Integer.parseInt( args[1] ) : 20;
+
+		FoodCollection fCollection = new FoodCollection();
+		ModelWriter.getInstance().own( fCollection );
+		FoodController fController = new FoodController( fCollection );
+
+		// 1.) Build the chain through the controller and compare every level
+		expect( fController.addBasicFood("level 0", "100", "3", "12", "5", true) );
+		expect( fController.addBasicFood("level 1", "250", "10", "30", "8", true) );
+		for(int i=2; i<=levels; i++) {
+			expect( fController.addRecipe("level " + i, "level " + (i-1) + ",1,level " + (i-2) + ",0.5", true) );
+		}
+
+		IFood top = fController.getFoodByName( "level " + levels );
+
+		for(int i=2; i<=levels; i++) {
+			IFood level = fController.getFoodByName( "level " + i );
+			compare( "level " + i, level, walk(level) );
+		}
+
+		// 2.) Time the getters of the top recipe, the way calculateTotalConsumedNutrients reads a logged recipe
+		long start = System.nanoTime();
+		for(int r=0; r<rounds; r++) {
+			walk( top );
+			walk( top );
+			walk( top );
+			walk( top );
+		}
+		long walkTime = System.nanoTime() - start;
+
+		fController.addBasicFood( "level 0", "100", "3", "12", "5", true ); // Drops every cached level
+		start = System.nanoTime();
+		read( top, 1 );
+		long coldTime = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		read( top, rounds );
+		long warmTime = System.nanoTime() - start;
+
+		// 3.) Replace the bottom basic food, then a middle recipe, and read the top again
+		start = System.nanoTime();
+		expect( fController.addBasicFood("level 0", "120", "4", "10", "6", true) );
+		read( top, 1 );
+		long replaceTime = System.nanoTime() - start;
+
+		checkReplaced( fController, top, levels, "level 0" );
+
+		int middle = levels / 2;
+		expect( fController.addRecipe("level " + middle, "level " + (middle-1) + ",2,level 0,1.5", true) );
+		checkReplaced( fController, top, levels, "level " + middle );
+
+		System.out.println( String.format("%d levels, %d x 4 getter calls on the top recipe: without the cache %.1f ms, cached %.3f ms cold and %.3f ms warm",
+				levels, rounds, walkTime / 1e6, coldTime / 1e6, warmTime / 1e6) );
+		System.out.println( String.format("Replacing the bottom food and reading the top recipe again: %.3f ms", replaceTime / 1e6) );
+
+		if(differences > 0) {
+			System.out.println( differences + " differences FAILED" );
+			System.exit( 1 );
+		}
+
+		System.out.println( "Cached nutrients match the ingredients" );
+		System.exit( 0 );
+	}
+
+	/**
+	 * Checks the top recipe after a replacement against the walk and against a chain built fresh from the foods of
+	 * the collection
+	 */
+	private static void checkReplaced(FoodController fController, IFood top, int levels, String replaced) {
+		compare( "top after replacing " + replaced, top, walk(top) );
+
+		// A new chain of the same foods, with no cache yet
+		Map<String, IFood> fresh = new HashMap<>();
+		FoodFactory factory = new FoodFactory();
+
+		for(int i=0; i<=levels; i++) {
+			String name = "level " + i;
+			IFood food = fController.getFoodByName( name );
+
+			if(food instanceof Recipe) {
+				Map<IFood, Double> ingredients = new LinkedHashMap<>();
+				for(Map.Entry<IFood, Double> entry : ((Recipe) food).getIngredients().entrySet()) {
+					ingredients.put( fresh.get(entry.getKey().getName()), entry.getValue() );
+				}
+				food = factory.createRecipe( name, ingredients );
+			}
+
+			fresh.put( name, food );
+		}
+
+		compare( "top after replacing " + replaced + " against a fresh chain", top, fresh.get("level " + levels).getNutrients(new double[IFood.NUTRIENT_COUNT]) );
+	}
+
+	/**
+	 * Reads the four getters of a food a number of times
+	 */
+	private static double read(IFood food, int rounds) {
+		double sum = 0;
+
+		for(int r=0; r<rounds; r++) {
+			sum += food.getCalories() + food.getFat() + food.getCarb() + food.getProtein();
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Works out the nutrients of a food by walking every path down to its basic foods, without any cache
+	 *
+	 * @param food
+	 * @return nutrients at CALORIES, FAT, CARB and PROTEIN
+	 */
+	private static double[] walk(IFood food) {
+		double[] n = new double[IFood.NUTRIENT_COUNT];
+		add( food, 1, n );
+
+		// Recipes round once, to one point
+		for(int j=0; j<n.length; j++) {
+			n[j] = Math.round(n[j] * 10.0) / 10.0;
+		}
+
+		return n;
+	}
+
+	private static void add(IFood food, double servings, double[] n) {
+		if(food instanceof Recipe) {
+			for(Map.Entry<IFood, Double> entry : ((Recipe) food).getIngredients().entrySet()) {
+				add( entry.getKey(), servings * entry.getValue(), n );
+			}
+		}
+		else {
+			double[] basic = food.getNutrients( new double[IFood.NUTRIENT_COUNT] );
+			for(int j=0; j<n.length; j++) {
+				n[j] += basic[j] * servings;
+			}
+		}
+	}
+
+	private static void compare(String what, IFood food, double[] expected) {
+		double[] actual = { food.getCalories(), food.getFat(), food.getCarb(), food.getProtein() };
+		check( Arrays.equals(expected, actual), what + " has " + Arrays.toString(actual) + ", expected " + Arrays.toString(expected) );
+	}
+
+	private static void expect(String error) {
+		check( error.isEmpty(), "FoodController: " + error );
+	}
+
+	private static boolean check(boolean ok, String message) {
+		if(!ok && ++differences <= MAX_REPORTED) {
+			System.out.println( "FAILED: " + message );
+		}
+
+		return ok;
+	}
+}
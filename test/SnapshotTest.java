@@ -0,0 +1,232 @@
+import controller.IOHandler;
+import controller.Snapshot;
+import model.exercise.Exercise;
+import model.exercise.ExerciseCollection;
+import model.food.FoodCollection;
+import model.food.IFood;
+import model.food.Recipe;
+import model.log.DayLog;
+import model.log.LogCollection;
+import model.log.LogSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Round trip test and load time benchmark of the binary snapshot.
+ *
+ * Loads the csv files and journals of the working directory, writes a snapshot of them, loads that snapshot into
+ * new models and checks that the foods, recipes, exercises, logged entries and daily goals (weight and calorie limit)
+ * all match the csv load. Then times both loads.
+ *
+ * Run from a directory with food.csv, exercise.csv and log.csv: java -cp out SnapshotTest [runs]
+ * The csv files are only read, the snapshot is written to SnapshotTest.snapshot and removed afterwards.
+ * Exits with 0 when everything matched, else prints the first differences and exits with 1.
+ *
+ * @author Team A
+ */
+public class SnapshotTest {
+	private static final String SNAPSHOT = "SnapshotTest.snapshot";
+	private static final int MAX_REPORTED = 10; // Differences printed in full
+
+	private static int differences;
+
+	public static void main(String[] args) throws IOException {
+		int runs = args.length > 0 ? Integer.parseInt( args[0] ) : 3;
+
+		// 1.) Load the csv files, the way DietManager does without --snapshot
+		Models csv = loadCsv();
+
+		// 2.) Write them to a snapshot and load it into new models
+		long start = System.nanoTime();
+		new Snapshot( csv.f, csv.e, csv.l ).write( SNAPSHOT );
+		long writeTime = System.nanoTime() - start;
+
+		try {
+			Models snapshot = loadSnapshot();
+
+			// 3.) Compare
+			compareFoods( csv.f, snapshot.f );
+			compareExercises( csv.e, snapshot.e );
+			compareLogs( csv.l.getSnapshot(), snapshot.l.getSnapshot() );
+
+			System.out.println( String.format("%d foods, %d exercises, %d days compared",
+					csv.f.getCollection().size(), csv.e.getAllExercises().size(), csv.l.getSnapshot().getDayCount()) );
+
+			// 4.) Load times, best of the runs
+			long csvTime = Long.MAX_VALUE;
+			long snapshotTime = Long.MAX_VALUE;
+
+			for(int i=0; i<runs; i++) {
+				start = System.nanoTime();
+				loadCsv();
+				csvTime = Math.min( csvTime, System.nanoTime() - start );
+
+				start = System.nanoTime();
+				loadSnapshot();
+				snapshotTime = Math.min( snapshotTime, System.nanoTime() - start );
+			}
+
+			System.out.println( String.format("Load: csv %d ms, snapshot %d ms (%d KB, written in %d ms), best of %d",
+					csvTime / 1000000, snapshotTime / 1000000, new File( SNAPSHOT ).length() / 1024, writeTime / 1000000, runs) );
+		}
+		finally {
+			new File( SNAPSHOT ).delete();
+		}
+
+		if(differences > 0) {
+			System.out.println( differences + " differences FAILED" );
+			System.exit( 1 );
+		}
+
+		System.out.println( "Snapshot matches the csv files" );
+		System.exit( 0 );
+	}
+
+	/**
+	 * Loads the csv files and journals, without opening the journals for writing
+	 *
+	 * @return Models
+	 */
+	private static Models loadCsv() {
+		Models m = new Models();
+		IOHandler io = new IOHandler( m.f, m.l, m.e );
+		io.setJournalMode( false );
+		io.read();
+		return m;
+	}
+
+	/**
+	 * Loads the snapshot written by main()
+	 *
+	 * @return Models
+	 * @throws IOException
+	 */
+	private static Models loadSnapshot() throws IOException {
+		Models m = new Models();
+		m.f.beginBulk();
+		m.e.beginBulk();
+		m.l.beginBulk();
+
+		try {
+			check( new Snapshot( m.f, m.e, m.l ).read( SNAPSHOT ), "Snapshot was not loaded" );
+		}
+		finally {
+			m.f.endBulk();
+			m.e.endBulk();
+			m.l.endBulk();
+		}
+
+		return m;
+	}
+
+	private static void compareFoods(FoodCollection expected, FoodCollection actual) {
+		Map<String, IFood> a = actual.getCollection();
+		double[] en = new double[IFood.NUTRIENT_COUNT];
+		double[] an = new double[IFood.NUTRIENT_COUNT];
+
+		check( expected.getCollection().size() == a.size(), "Food count " + a.size() + ", expected " + expected.getCollection().size() );
+
+		for(Map.Entry<String, IFood> entry : expected.getCollection().entrySet()) {
+			IFood e = entry.getValue();
+			IFood f = a.get( entry.getKey() );
+
+			if(!check( f != null, "Food " + entry.getKey() + " is missing" )) {
+				continue;
+			}
+
+			check( e.getName().equals(f.getName()), "Food " + entry.getKey() + " is named " + f.getName() + ", expected " + e.getName() );
+			check( Arrays.equals(e.getNutrients(en), f.getNutrients(an)), "Food " + entry.getKey() + " has nutrients " + Arrays.toString(an) + ", expected " + Arrays.toString(en) );
+			check( (e instanceof Recipe) == (f instanceof Recipe), "Food " + entry.getKey() + " changed between basic food and recipe" );
+
+			if(e instanceof Recipe && f instanceof Recipe) {
+				check( ingredients((Recipe) e).equals(ingredients((Recipe) f)), "Recipe " + entry.getKey() + " has ingredients " + ingredients((Recipe) f) + ", expected " + ingredients((Recipe) e) );
+			}
+		}
+	}
+
+	private static Map<String, Double> ingredients(Recipe r) {
+		Map<String, Double> byName = new TreeMap<>();
+
+		for(Map.Entry<IFood, Double> i : r.getIngredients().entrySet()) {
+			byName.put( i.getKey().getName(), i.getValue() );
+		}
+
+		return byName;
+	}
+
+	private static void compareExercises(ExerciseCollection expected, ExerciseCollection actual) {
+		check( expected.getAllExercises().size() == actual.getAllExercises().size(), "Exercise count " + actual.getAllExercises().size() + ", expected " + expected.getAllExercises().size() );
+
+		for(Exercise e : expected.getAllExercises()) {
+			Exercise x = actual.getExercise( e.getName().toLowerCase() );
+
+			if(check( x != null, "Exercise " + e.getName() + " is missing" )) {
+				check( e.getName().equals(x.getName()) && e.getCaloriesPerHour() == x.getCaloriesPerHour(),
+						"Exercise " + x.getName() + " burns " + x.getCaloriesPerHour() + ", expected " + e.getName() + " " + e.getCaloriesPerHour() );
+			}
+		}
+	}
+
+	private static void compareLogs(LogSnapshot expected, LogSnapshot actual) {
+		if(!check( expected.getDayCount() == actual.getDayCount(), "Day count " + actual.getDayCount() + ", expected " + expected.getDayCount() )) {
+			return;
+		}
+
+		for(int d=0; d<expected.getDayCount(); d++) {
+			DayLog e = expected.getDayAt( d );
+			DayLog a = actual.getDayAt( d );
+			String date = e.getDate();
+
+			if(!check( expected.getEpochDay(d) == actual.getEpochDay(d), "Day " + d + " is " + a.getDate() + ", expected " + date )) {
+				continue;
+			}
+
+			// Goals, NaN when not logged
+			check( Double.compare(e.getWeight(), a.getWeight()) == 0, date + " weight " + a.getWeight() + ", expected " + e.getWeight() );
+			check( Double.compare(e.getCalorieLimit(), a.getCalorieLimit()) == 0, date + " calorie limit " + a.getCalorieLimit() + ", expected " + e.getCalorieLimit() );
+
+			// Entries, in the order they were logged
+			check( foods(e).equals(foods(a)), date + " foods " + foods(a) + ", expected " + foods(e) );
+			check( exercises(e).equals(exercises(a)), date + " exercises " + exercises(a) + ", expected " + exercises(e) );
+		}
+	}
+
+	private static List<String> foods(DayLog day) {
+		List<String> entries = new ArrayList<>();
+
+		for(int i=0; i<day.getFoodCount(); i++) {
+			entries.add( day.getFoodName(i) + " " + day.getFoodServings(i) );
+		}
+
+		return entries;
+	}
+
+	private static List<String> exercises(DayLog day) {
+		List<String> entries = new ArrayList<>();
+
+		for(int i=0; i<day.getExerciseCount(); i++) {
+			entries.add( day.getExerciseName(i) + " " + day.getExerciseDuration(i) );
+		}
+
+		return entries;
+	}
+
+	private static boolean check(boolean ok, String message) {
+		if(!ok && ++differences <= MAX_REPORTED) {
+			System.out.println( "FAILED: " + message );
+		}
+
+		return ok;
+	}
+
+	/**
+	 * One set of the three models
+	 */
+	private static class Models {
+		private FoodCollection f = new FoodCollection();
+		private ExerciseCollection e = new ExerciseCollection();
+		private LogCollection l = new LogCollection( f, e );
+	}
+}
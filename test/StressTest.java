@@ -0,0 +1,277 @@
+import controller.*;
+import model.exercise.ExerciseCollection;
+import model.food.FoodCollection;
+import model.food.IFood;
+import model.log.DayLog;
+import model.log.LogCollection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stress test of the models: a group of CLI threads and a group of GUI threads change and read the collections
+ * through the controllers at the same time, the way DietManagerCLI and the panels do, and every read is checked.
+ *
+ * Checks:
+ *   1.) Each thread sees its own change as soon as the controller returns, ie.) a logged food is in the day's log
+ *   2.) A food created by one controller can be logged through another right away
+ *   3.) The totals of a day always match the entries of that same DayLog
+ *   4.) At the end every shared day holds exactly the entries that were added and not removed
+ *   5.) Nothing throws
+ *
+ * Run from the project root after compiling src and test: java -cp out StressTest [threads per group] [operations]
+ * Exits with 0 when every check passed, else prints the first failures and exits with 1.
+ *
+ * @author Team A
+ */
+public class StressTest {
+	private static final int SHARED_DAYS = 10; // Days every thread logs to, from 2030-01-01
+	private static final int BASE_FOODS = 20; // Foods created before the threads start
+	private static final int MAX_REPORTED = 10; // Failures printed in full
+
+	private static FoodCollection fCollection = new FoodCollection();
+	private static ExerciseCollection eCollection = new ExerciseCollection();
+	private static LogCollection lCollection = new LogCollection( fCollection, eCollection );
+
+	private static FoodController fController = new FoodController( fCollection );
+	private static ExerciseController eController = new ExerciseController( eCollection );
+	private static LogController lController = new LogController( fCollection, lCollection, eCollection );
+
+	private static AtomicInteger failures = new AtomicInteger();
+	private static AtomicLong checks = new AtomicLong();
+	private static AtomicLong sharedFoods = new AtomicLong(); // Foods logged on the shared days and not removed
+	private static AtomicLong sharedExercises = new AtomicLong(); // Exercises logged on the shared days and not removed
+
+	public static void main(String[] args) throws Exception {
+		final int threads = args.length > 0 ? Integer.parseInt( args[0] ) : 4;
+		final int ops = args.length > 1 ? Integer.parseInt( args[1] ) : 20000;
+
+		// Same setup as DietManager.main(), without reading the csv files
+		ModelWriter.getInstance().own( fCollection, eCollection, lCollection );
+
+		for(int i=0; i<BASE_FOODS; i++) {
+			expect( fController.addBasicFood("stress food " + i, String.valueOf(10 * (i+1)), "1", "2", "3", true), "create food" );
+		}
+		expect( eController.addExercise("stress exercise", "600", true), "create exercise" );
+
+		ExecutorService pool = Executors.newFixedThreadPool( threads * 2 );
+		List<Future<?>> results = new ArrayList<>();
+		long start = System.nanoTime();
+
+		for(int t=0; t<threads; t++) {
+			final int cli = t;
+			final int gui = threads + t;
+
+			results.add(pool.submit(new Runnable() {
+				@Override
+				public void run() {
+					runCli( cli, ops );
+				}
+			}));
+			results.add(pool.submit(new Runnable() {
+				@Override
+				public void run() {
+					runGui( gui, ops );
+				}
+			}));
+		}
+
+		for(Future<?> result : results) {
+			try {
+				result.get();
+			}
+			catch(ExecutionException ee) {
+				fail( "Thread died: " + ee.getCause() );
+				ee.getCause().printStackTrace();
+			}
+		}
+		pool.shutdown();
+
+		// 4.) Every change to the shared days was applied exactly once
+		long foods = 0;
+		long exercises = 0;
+		for(int d=0; d<SHARED_DAYS; d++) {
+			DayLog day = lController.getDayLog( sharedDate(d) );
+			if(day != null) {
+				foods += day.getFoodCount();
+				exercises += day.getExerciseCount();
+				checkTotals( day );
+			}
+		}
+		check( foods == sharedFoods.get(), "Shared days hold " + foods + " foods, expected " + sharedFoods.get() );
+		check( exercises == sharedExercises.get(), "Shared days hold " + exercises + " exercises, expected " + sharedExercises.get() );
+
+		System.out.println( String.format("%d checks by %d CLI and %d GUI threads in %d ms, %s",
+				checks.get(), threads, threads, (System.nanoTime() - start) / 1000000, ModelWriter.getInstance()) );
+
+		if(failures.get() > 0) {
+			System.out.println( failures.get() + " checks FAILED" );
+			System.exit( 1 );
+		}
+
+		System.out.println( "All checks passed" );
+		System.exit( 0 );
+	}
+
+	/**
+	 * Logs and removes foods and exercises the way DietManagerCLI does, on a day of its own and on the shared days
+	 *
+	 * @param id
+	 * @param ops
+	 */
+	private static void runCli(int id, int ops) {
+		Random random = new Random( id );
+		String own = ownDate( id );
+		int ownFoods = 0;
+
+		for(int i=0; i<ops; i++) {
+			String food = "stress food " + random.nextInt( BASE_FOODS );
+			String shared = sharedDate( random.nextInt(SHARED_DAYS) );
+
+			switch(random.nextInt(6)) {
+				case 0:
+				case 1:
+					// 1.) A logged food is there when logFood() returns
+					expect( lController.logFood(own, food, "1"), "log food" );
+					ownFoods++;
+					check( countFoods(own) == ownFoods, own + " holds " + countFoods(own) + " foods right after logging, expected " + ownFoods );
+					break;
+				case 2:
+					if(ownFoods > 0 && removeFood(own, "1")) {
+						ownFoods--;
+					}
+					check( countFoods(own) == ownFoods, own + " holds " + countFoods(own) + " foods right after removing, expected " + ownFoods );
+					break;
+				case 3:
+					expect( lController.logFood(shared, food, "1"), "log shared food" );
+					sharedFoods.incrementAndGet();
+					break;
+				case 4:
+					if(removeFood(shared, "1")) {
+						sharedFoods.decrementAndGet();
+					}
+					break;
+				default:
+					expect( lController.logExercise(shared, "stress exercise", "30"), "log exercise" );
+					sharedExercises.incrementAndGet();
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Creates foods and reads the days the way the panels do
+	 *
+	 * @param id
+	 * @param ops
+	 */
+	private static void runGui(int id, int ops) {
+		Random random = new Random( id );
+		String own = ownDate( id );
+		int ownFoods = 0;
+
+		for(int i=0; i<ops; i++) {
+			switch(random.nextInt(4)) {
+				case 0:
+					// 2.) A food created through one controller can be logged through another
+					if(i % 20 == 0) {
+						String food = "stress food " + id + "-" + i;
+						expect( fController.addBasicFood(food, "50", "1", "1", "1", false), "create food" );
+						expect( lController.logFood(own, food, "2"), "log new food" );
+						ownFoods++;
+						check( countFoods(own) == ownFoods, own + " holds " + countFoods(own) + " foods right after logging, expected " + ownFoods );
+					}
+					break;
+				case 1:
+					// 3.) The graphs read one DayLog and its totals
+					DayLog day = lController.getDayLog( sharedDate(random.nextInt(SHARED_DAYS)) );
+					if(day != null) {
+						checkTotals( day );
+					}
+					break;
+				case 2:
+					// The summary reads a range of days
+					List<DayLog> days = lController.getLogsBetween( sharedDate(0), sharedDate(SHARED_DAYS-1) );
+					for(int d=1; d<days.size(); d++) {
+						check( days.get(d-1).getEpochDay() < days.get(d).getEpochDay(), "Days out of order in getLogsBetween()" );
+					}
+					break;
+				default:
+					lController.getFoodData( sharedDate(random.nextInt(SHARED_DAYS)) );
+					lController.searchFoodData( "stress", 10 );
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Removes one food logged with the given servings, which one depends on what the day holds
+	 *
+	 * @param date
+	 * @param servings
+	 * @return true if a food was removed
+	 */
+	private static boolean removeFood(String date, String servings) {
+		DayLog day = lController.getDayLog( date );
+		if(day == null || day.getFoodCount() == 0) {
+			return false;
+		}
+
+		// Another thread can remove it first, then there is nothing to remove
+		String result = lController.removeFoodLog( date, day.getFoodName(0), servings );
+		return result.isEmpty() || result.contains("duplicate");
+	}
+
+	/**
+	 * Checks that the totals of a DayLog are the sum of its entries
+	 *
+	 * @param day
+	 */
+	private static void checkTotals(DayLog day) {
+		double expected = 0;
+		double[] nutrients = new double[IFood.NUTRIENT_COUNT];
+
+		for(int i=0; i<day.getFoodCount(); i++) {
+			IFood food = fCollection.getFood( day.getFoodName(i) );
+			expected += food.getNutrients( nutrients )[0] * day.getFoodServings(i);
+		}
+
+		double calories = lController.getConsumedTotals( day )[0];
+		check( Math.abs(calories - expected) < 1e-6, day.getDate() + " totals " + calories + " calories, its entries " + expected );
+	}
+
+	private static int countFoods(String date) {
+		DayLog day = lController.getDayLog( date );
+		return day == null ? 0 : day.getFoodCount();
+	}
+
+	private static String ownDate(int id) {
+		return String.format( "%d-01-01", 2001 + id );
+	}
+
+	private static String sharedDate(int d) {
+		return String.format( "2030-01-%02d", d + 1 );
+	}
+
+	private static void expect(String error, String what) {
+		check( error.isEmpty(), what + " failed: " + error );
+	}
+
+	private static void check(boolean ok, String message) {
+		checks.incrementAndGet();
+
+		if(!ok) {
+			fail( message );
+		}
+	}
+
+	private static void fail(String message) {
+		if(failures.incrementAndGet() <= MAX_REPORTED) {
+			System.out.println( "FAILED: " + message );
+		}
+	}
+}
@@ -0,0 +1,205 @@
+import model.food.BasicFood;
+import model.food.FoodCollection;
+
+import java.util.*;
+
+/**
+ * Checks and times the "did you mean" suggestions of FoodCollection.searchSimilarFoods() on a large synthetic catalog.
+ *
+ * The catalog is built from a few words and styles, so many names share the same groups of letters and the lists of
+ * the trigram index get long, ie.) "raw cheese pizza 4524". Every suggestion is compared with a ranking of all names
+ * worked out the slow way, then the time per suggestion is measured on the large catalog and on one of 300 foods,
+ * about the size of food.csv. On the large catalog it is measured both for common names, which share groups with
+ * most foods, and for rare ones that share groups with only a few, whose suggestions should not cost more for a
+ * larger catalog.
+ *
+ * Run from the project root after compiling src and test: java -cp out SuggestionTest [foods] [rounds]
+ * Exits with 0 when every suggestion matched, else prints the first differences and exits with 1.
+ *
+ * @author Team A
+ */
+public class SuggestionTest {
+	private static final String[] WORDS = { "cheese", "pizza", "chicken", "salad", "burger", "apple", "banana", "bread",
+			"butter", "coffee", "tea", "milk", "yogurt", "rice", "beans", "pasta", "sauce", "tomato", "potato", "onion",
+			"garlic", "pepper", "steak", "salmon", "tuna", "egg", "bacon", "sausage", "cookie", "cake" };
+	private static final String[] STYLES = { "raw", "fried", "baked", "grilled", "boiled", "roasted", "smoked",
+			"steamed", "frozen", "fresh" };
+
+	// Mistyped names, ie.) what a user types in LogFoodPanel or the CLI
+	private static final String[] QUERIES = { "chese piza", "chees piza", "chiken salat", "burgr", "aple pie",
+			"grild samon", "cofee milk", "fryed egg", "tomatoe sauce", "bakd potatoe" };
+
+	// Foods whose names share little with the rest, and mistyped names that only find them
+	private static final String[] RARE_FOODS = { "Kombucha", "Quinoa Bowl", "Zucchini", "Kimchi", "Wasabi" };
+	private static final String[] RARE_QUERIES = { "kombuca", "quinao bowl", "zuchini", "kimchee", "wasbi" };
+
+	private static final int LIMIT = 10; // Same as LogFoodPanel
+	private static final double MIN_SCORE = 0.3; // Same as TrigramIndex
+	private static final int SMALL_CATALOG = 300;
+	private static final int MAX_REPORTED = 10; // Differences printed in full
+
+	private static int differences;
+
+	public static void main(String[] args) {
+		int foods = args.length > 0 ? Integer.parseInt( args[0] ) : 100000;
+		int rounds = args.length > 1 ? Integer.parseInt( args[1] ) : 200;
+
+		// 1.) Build the catalogs
+		long start = System.nanoTime();
+		FoodCollection large = catalog( foods );
+		long buildTime = System.nanoTime() - start;
+		FoodCollection small = catalog( SMALL_CATALOG );
+
+		// 2.) Compare every suggestion with the slow ranking
+		for(String query : QUERIES) {
+			compare( large, query );
+			compare( small, query );
+		}
+		for(String query : RARE_QUERIES) {
+			compare( large, query );
+		}
+
+		System.out.println( String.format("%d foods built in %d ms, \"%s\" -> %s", foods, buildTime / 1000000,
+				QUERIES[0], large.searchSimilarFoods(QUERIES[0], 3)) );
+
+		// 3.) Time per suggestion once warmed up
+		System.out.println( String.format("Suggestion: %d us per query with %d foods (%d us for rare names), %d us with %d foods, average of %d rounds",
+				time( large, QUERIES, rounds ), foods, time( large, RARE_QUERIES, rounds * 10 ), time( small, QUERIES, rounds * 10 ), SMALL_CATALOG, rounds) );
+
+		if(differences > 0) {
+			System.out.println( differences + " differences FAILED" );
+			System.exit( 1 );
+		}
+
+		System.out.println( "Suggestions match the slow ranking" );
+		System.exit( 0 );
+	}
+
+	/**
+	 * Builds a catalog of foods named from the styles and words, with a number once every combination is used
+	 *
+	 * @param count
+	 * @return FoodCollection
+	 */
+	private static FoodCollection catalog(int count) {
+		FoodCollection f = new FoodCollection();
+		f.addFood( "cheese pizza", new BasicFood("Cheese Pizza", 285, 10, 36, 12) );
+		for(String name : RARE_FOODS) {
+			f.addFood( name.toLowerCase(), new BasicFood(name, 100, 1, 2, 3) );
+		}
+
+		Random random = new Random( 42 );
+		int combinations = STYLES.length * WORDS.length * WORDS.length;
+
+		for(int i=1; i<count; i++) {
+			String name = STYLES[random.nextInt(STYLES.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+			if(i >= combinations / 10) {
+				name += " " + i;
+			}
+
+			if(f.getFood( name ) == null) {
+				f.addFood( name, new BasicFood(name, i % 500, 1, 2, 3) );
+			}
+		}
+
+		return f;
+	}
+
+	/**
+	 * Returns the average time of a suggestion in microseconds
+	 *
+	 * @param f
+	 * @param queries
+	 * @param rounds times every query is run, after the same number of warm up rounds
+	 * @return long
+	 */
+	private static long time(FoodCollection f, String[] queries, int rounds) {
+		int found = 0;
+
+		for(int r=0; r<rounds; r++) {
+			for(String query : queries) {
+				found += f.searchSimilarFoods( query, LIMIT ).size();
+			}
+		}
+
+		long start = System.nanoTime();
+		for(int r=0; r<rounds; r++) {
+			for(String query : queries) {
+				found += f.searchSimilarFoods( query, LIMIT ).size();
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+
+		check( found > 0, "No suggestions at all" );
+		return elapsed / 1000 / ((long) rounds * queries.length);
+	}
+
+	/**
+	 * Compares the suggestions for a query with the names ranked by the Dice coefficient of their groups of letters,
+	 * best first and by name when equal
+	 *
+	 * @param f
+	 * @param query
+	 */
+	private static void compare(FoodCollection f, String query) {
+		final Set<String> grams = trigrams( query );
+		final Map<String, Double> scores = new HashMap<>();
+
+		for(String key : f.getCollection().keySet()) {
+			Set<String> keyGrams = trigrams( key );
+			int shared = 0;
+
+			for(String gram : keyGrams) {
+				if(grams.contains( gram )) {
+					shared++;
+				}
+			}
+
+			double score = 2.0 * shared / (grams.size() + keyGrams.size());
+			if(score >= MIN_SCORE) {
+				scores.put( key, score );
+			}
+		}
+
+		List<String> expected = new ArrayList<>( scores.keySet() );
+		Collections.sort(expected, new Comparator<String>() {
+			@Override
+			public int compare(String a, String b) {
+				int c = Double.compare( scores.get(b), scores.get(a) );
+				return c != 0 ? c : a.compareTo( b );
+			}
+		});
+		expected = expected.subList( 0, Math.min(LIMIT, expected.size()) );
+
+		List<String> actual = f.searchSimilarFoods( query, LIMIT );
+		check( expected.equals(actual), "\"" + query + "\" suggested " + actual + ", expected " + expected );
+
+		// A second search must not see anything left over from the first
+		check( actual.equals(f.searchSimilarFoods( query, LIMIT )), "\"" + query + "\" changed when searched again" );
+	}
+
+	/**
+	 * Splits a name into its distinct groups of three characters, the same way as TrigramIndex
+	 *
+	 * @param name
+	 * @return Set of groups
+	 */
+	private static Set<String> trigrams(String name) {
+		String padded = "  " + name.toLowerCase().trim().replaceAll( "\\s+", " " ) + " ";
+		Set<String> grams = new HashSet<>();
+
+		for(int i=0; i+3<=padded.length(); i++) {
+			grams.add( padded.substring(i, i+3) );
+		}
+
+		return grams;
+	}
+
+	private static boolean check(boolean ok, String message) {
+		if(!ok && ++differences <= MAX_REPORTED) {
+			System.out.println( "FAILED: " + message );
+		}
+
+		return ok;
+	}
+}